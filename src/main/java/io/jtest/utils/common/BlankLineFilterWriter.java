@@ -0,0 +1,92 @@
+package io.jtest.utils.common;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes text without its blank lines: lines made only of spaces and tabs, together with their
+ * line break. Drops exactly what {@code replaceAll("(?m)^[ \t]*\r?\n", "")} would, line breaks
+ * included, without holding more than the start of the current line. {@link #finish()} must be
+ * called once all the text has been written.
+ */
+class BlankLineFilterWriter extends FilterWriter {
+
+    // line terminators of java.util.regex besides line feed and carriage return
+    private static final char NEXT_LINE = 0x85;
+    private static final char LINE_SEPARATOR = 0x2028;
+    private static final char PARAGRAPH_SEPARATOR = 0x2029;
+
+    private final StringBuilder lineStart = new StringBuilder();
+    /** {@code true} while only spaces and tabs, then possibly a carriage return, were written on the current line. */
+    private boolean atLineStart = true;
+    /** {@code true} if the last character written in the middle of a line was a carriage return. */
+    private boolean afterCarriageReturn;
+
+    BlankLineFilterWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        char ch = (char) c;
+        if (afterCarriageReturn) {
+            afterCarriageReturn = false;
+            if (ch == '\n') {
+                out.write(ch);
+                atLineStart = true;
+                return;
+            }
+            atLineStart = true;
+        }
+        if (atLineStart) {
+            boolean carriageReturn = lineStart.length() > 0 && lineStart.charAt(lineStart.length() - 1) == '\r';
+            if (ch == '\n') {
+                lineStart.setLength(0);
+                return;
+            }
+            if (!carriageReturn && (ch == ' ' || ch == '\t' || ch == '\r')) {
+                lineStart.append(ch);
+                return;
+            }
+            out.append(lineStart);
+            lineStart.setLength(0);
+            if (carriageReturn) {
+                // a carriage return alone ends a line too
+                write(c);
+                return;
+            }
+            atLineStart = false;
+        }
+        out.write(ch);
+        if (ch == '\r') {
+            afterCarriageReturn = true;
+        } else {
+            atLineStart = ch == '\n' || ch == NEXT_LINE || ch == LINE_SEPARATOR || ch == PARAGRAPH_SEPARATOR;
+        }
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            write(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            write(text.charAt(i));
+        }
+    }
+
+    /**
+     * Writes the spaces and tabs the text ends with, if its last line has nothing else, and
+     * flushes. Does not close the underlying writer.
+     */
+    void finish() throws IOException {
+        out.append(lineStart);
+        lineStart.setLength(0);
+        out.flush();
+    }
+}
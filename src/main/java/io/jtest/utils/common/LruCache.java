@@ -0,0 +1,131 @@
+package io.jtest.utils.common;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe, size-bounded cache that evicts the least recently used entry once
+ * {@code maxSize} is exceeded. Hit, miss and eviction counts are tracked and exposed via
+ * {@link #stats()}.
+ *
+ * <p>Values are computed outside the lock, so two threads missing on the same key at the
+ * same time may both run the loader; the first stored value wins. A {@code maxSize} of
+ * {@code 0} disables caching — every lookup then goes straight to the loader.
+ *
+ * @param <K> key type; must implement {@code equals} / {@code hashCode}
+ * @param <V> value type
+ */
+public final class LruCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private int maxSize;
+
+    /**
+     * @param maxSize maximum number of entries kept; {@code 0} disables caching
+     * @throws IllegalArgumentException if {@code maxSize} is negative
+     */
+    public LruCache(int maxSize) {
+        this.maxSize = checkMaxSize(maxSize);
+    }
+
+    /**
+     * Returns the value cached for {@code key}, computing and caching it on a miss.
+     *
+     * @param key    lookup key; must not be {@code null}
+     * @param loader computes the value on a miss; must not return {@code null}
+     * @return the cached or freshly computed value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        synchronized (this) {
+            if (maxSize > 0) {
+                V value = entries.get(key);
+                if (value != null) {
+                    hits.increment();
+                    return value;
+                }
+            }
+        }
+        misses.increment();
+        V loaded = loader.apply(key);
+        synchronized (this) {
+            if (maxSize == 0) {
+                return loaded;
+            }
+            V existing = entries.putIfAbsent(key, loaded);
+            if (existing != null) {
+                return existing;
+            }
+            trimTo(maxSize);
+        }
+        return loaded;
+    }
+
+    /**
+     * Changes the maximum number of entries, evicting the least recently used ones if the
+     * cache is currently larger. {@code 0} disables caching and empties the cache.
+     *
+     * @throws IllegalArgumentException if {@code maxSize} is negative
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        this.maxSize = checkMaxSize(maxSize);
+        trimTo(maxSize);
+    }
+
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Removes every entry. Counters are left untouched.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return a snapshot of the cache counters and current size
+     */
+    public Stats stats() {
+        int size;
+        int max;
+        synchronized (this) {
+            size = entries.size();
+            max = maxSize;
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size, max);
+    }
+
+    private void trimTo(int size) {
+        Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+        while (entries.size() > size && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static int checkMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Cache max size cannot be negative: " + maxSize);
+        }
+        return maxSize;
+    }
+
+    /**
+     * Point-in-time view of the cache counters.
+     *
+     * @param hits      lookups answered from the cache
+     * @param misses    lookups that had to run the loader
+     * @param evictions entries dropped to stay within {@code maxSize}
+     * @param size      current number of entries
+     * @param maxSize   configured maximum number of entries
+     */
+    public record Stats(long hits, long misses, long evictions, int size, int maxSize) {
+    }
+}
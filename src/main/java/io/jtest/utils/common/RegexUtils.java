@@ -19,6 +19,13 @@ public class RegexUtils {
     }
 
     static final List<String> specialRegexCharacters = Arrays.asList("\\", "^", "$", ".", "|", "?", "*", "+", "(", ")", "[", "{");
+    private static final boolean[] specialRegexCharTable = new boolean[128];
+
+    static {
+        for (String specialChar : specialRegexCharacters) {
+            specialRegexCharTable[specialChar.charAt(0)] = true;
+        }
+    }
 
     /**
      * Returns {@code true} if {@code str} compiles as a Java regular expression,
@@ -58,4 +65,29 @@ public class RegexUtils {
             return specialRegexCharacters.stream().filter(str::contains).collect(Collectors.toList());
         }
     }
+
+    /**
+     * Returns {@code true} if {@code str} contains none of the metacharacters reported by
+     * {@link #getRegexCharsFromString(String)}. Such a string, compiled as a pattern, matches
+     * exactly itself and nothing else, so callers can compare it with {@link String#equals}
+     * instead of running the regex engine.
+     *
+     * <p>Equivalent to {@code getRegexCharsFromString(str).isEmpty()}, but done in a single
+     * allocation-free pass over the string.
+     *
+     * @param str the string to scan; may be {@code null} or empty
+     * @return {@code true} if {@code str} is {@code null}, empty, or free of regex metacharacters
+     */
+    public static boolean isLiteral(String str) {
+        if (str == null) {
+            return true;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c < specialRegexCharTable.length && specialRegexCharTable[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,134 @@
+package io.jtest.utils.common;
+
+import org.w3c.dom.Node;
+
+/**
+ * Element children of a node, each with its position among the children of the same name and
+ * the number of those, built in one pass over the children. Tells whether an element is one of
+ * a list of same-named siblings without scanning the siblings for every element, which is
+ * quadratic in the number of children.
+ */
+public final class SiblingIndex {
+
+    private static final SiblingIndex EMPTY = new SiblingIndex(new Node[0], new int[0], new int[0]);
+
+    private final Node[] elements;
+    private final int[] positions;
+    private final int[] counts;
+    /**
+     * Open-addressing table from element identity to its index in {@link #elements}, plus one;
+     * 0 marks a free slot.
+     */
+    private final int[] slots;
+
+    private SiblingIndex(Node[] elements, int[] positions, int[] counts) {
+        this.elements = elements;
+        this.positions = positions;
+        this.counts = counts;
+        this.slots = new int[tableSize(elements.length)];
+        for (int i = 0; i < elements.length; i++) {
+            int slot = slotOf(elements[i]);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    /**
+     * @param parent node whose element children to index; {@code null} for none
+     */
+    public static SiblingIndex of(Node parent) {
+        if (parent == null || !parent.hasChildNodes()) {
+            return EMPTY;
+        }
+        int size = 0;
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                size++;
+            }
+        }
+        Node[] elements = new Node[size];
+        int[] groups = new int[size];
+        int[] positions = new int[size];
+        // Open-addressing table from element name to its group, plus one; 0 marks a free slot
+        int[] groupSlots = new int[tableSize(size)];
+        String[] groupNames = new String[size];
+        int[] groupSizes = new int[size];
+        int groupCount = 0;
+        int i = 0;
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                String name = child.getNodeName();
+                int slot = spread(name.hashCode()) & (groupSlots.length - 1);
+                while (groupSlots[slot] != 0 && !groupNames[groupSlots[slot] - 1].equals(name)) {
+                    slot = (slot + 1) & (groupSlots.length - 1);
+                }
+                if (groupSlots[slot] == 0) {
+                    groupNames[groupCount] = name;
+                    groupSlots[slot] = ++groupCount;
+                }
+                int group = groupSlots[slot] - 1;
+                elements[i] = child;
+                groups[i] = group;
+                positions[i] = ++groupSizes[group];
+                i++;
+            }
+        }
+        int[] counts = new int[size];
+        for (i = 0; i < size; i++) {
+            counts[i] = groupSizes[groups[i]];
+        }
+        return new SiblingIndex(elements, positions, counts);
+    }
+
+    /**
+     * @return number of element children
+     */
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * @return index of {@code element} among the element children, or -1 if it is not one of them
+     */
+    public int indexOf(Node element) {
+        for (int slot = slotOf(element); slots[slot] != 0; slot = (slot + 1) & (slots.length - 1)) {
+            if (elements[slots[slot] - 1] == element) {
+                return slots[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index index among the element children
+     * @return position of the element among the children of the same name, starting at 1
+     */
+    public int position(int index) {
+        return positions[index];
+    }
+
+    /**
+     * @param index index among the element children
+     * @return number of children with the name of the element, itself included
+     */
+    public int count(int index) {
+        return counts[index];
+    }
+
+    private int slotOf(Node element) {
+        return spread(System.identityHashCode(element)) & (slots.length - 1);
+    }
+
+    /**
+     * @return a power of two at least twice {@code entries}, so that a probe always ends on a free slot
+     */
+    private static int tableSize(int entries) {
+        return Integer.highestOneBit(Math.max(1, entries) * 2) << 1;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
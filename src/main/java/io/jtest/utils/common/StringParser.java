@@ -19,10 +19,14 @@ public class StringParser {
     }
 
     public static List<String> captureValues(String source, Pattern captureGroupPattern, boolean matchEntirely) {
+        return captureValues((CharSequence) source, captureGroupPattern, matchEntirely);
+    }
+
+    public static List<String> captureValues(CharSequence source, Pattern captureGroupPattern, boolean matchEntirely) {
         List<String> values = new ArrayList<>();
         Matcher matcher = captureGroupPattern.matcher(source);
         while (matcher.find()) {
-            if (matchEntirely && !matcher.group(0).equals(source)) {
+            if (matchEntirely && (matcher.start() != 0 || matcher.end() != source.length())) {
                 return values;
             }
             for (int i = 1; i <= matcher.groupCount(); i++) {
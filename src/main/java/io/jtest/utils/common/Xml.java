@@ -2,7 +2,6 @@ package io.jtest.utils.common;
 
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import java.util.AbstractMap;
 import java.util.Map;
@@ -15,7 +14,12 @@ class Xml {
     }
 
     static <R> void walkAndProcessNode(Node node, Function<String, R> processFct, String parentPath, Map<String, R> results) {
-        String currentPath = getNodePath(node, parentPath);
+        SiblingIndex siblings = SiblingIndex.of(node.getParentNode());
+        int index = siblings.indexOf(node);
+        walk(node, processFct, index < 0 ? getNodePath(node, parentPath) : getNodePath(node, parentPath, siblings, index), results);
+    }
+
+    private static <R> void walk(Node node, Function<String, R> processFct, String currentPath, Map<String, R> results) {
         Map.Entry<String, R> result = processNode(currentPath, node, processFct);
         if (result != null && result.getValue() != null) {
             results.put(result.getKey(), result.getValue());
@@ -23,14 +27,17 @@ class Xml {
         if (node.hasAttributes()) {
             NamedNodeMap attributes = node.getAttributes();
             for (int i = 0; i < attributes.getLength(); i++) {
-                walkAndProcessNode(attributes.item(i), processFct, currentPath, results);
+                walk(attributes.item(i), processFct, currentPath, results);
             }
         }
         if (node.hasChildNodes()) {
-            NodeList nodeList = node.getChildNodes();
-            for (int i = 0; i < nodeList.getLength(); i++) {
-                Node item = nodeList.item(i);
-                walkAndProcessNode(item, processFct, currentPath, results);
+            // positions among same-named siblings, for all children at once
+            SiblingIndex siblings = SiblingIndex.of(node);
+            int index = 0;
+            for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                String childPath = child.getNodeType() == Node.ELEMENT_NODE
+                        ? getNodePath(child, currentPath, siblings, index++) : currentPath;
+                walk(child, processFct, childPath, results);
             }
         }
     }
@@ -55,43 +62,16 @@ class Xml {
     }
 
     private static String getNodePath(Node node, String parentPath) {
-        if (node.getNodeType() == Node.ELEMENT_NODE) {
-            if (isListElement(node)) {
-                return parentPath + "/" + node.getNodeName() + "[" + findNodePositionAmongListElements(node) + "]";
-            } else {
-                return parentPath + "/" + node.getNodeName();
-            }
-        }
-        return parentPath;
+        return node.getNodeType() == Node.ELEMENT_NODE ? parentPath + "/" + node.getNodeName() : parentPath;
     }
 
-    private static boolean isListElement(Node node) {
-        Node prevNode = node.getPreviousSibling();
-        Node nextNode = node.getNextSibling();
-        while (prevNode != null) {
-            if (prevNode.getNodeType() == Node.ELEMENT_NODE && prevNode.getNodeName().equals(node.getNodeName())) {
-                return true;
-            }
-            prevNode = prevNode.getPreviousSibling();
-        }
-        while (nextNode != null) {
-            if (nextNode.getNodeType() == Node.ELEMENT_NODE && nextNode.getNodeName().equals(node.getNodeName())) {
-                return true;
-            }
-            nextNode = nextNode.getNextSibling();
-        }
-        return false;
-    }
-
-    private static int findNodePositionAmongListElements(Node node) {
-        int i = 1;
-        Node prevNode = node.getPreviousSibling();
-        while (prevNode != null) {
-            if (prevNode.getNodeType() == Node.ELEMENT_NODE && prevNode.getNodeName().equals(node.getNodeName())) {
-                i++;
-            }
-            prevNode = prevNode.getPreviousSibling();
+    /**
+     * @param index index of the element {@code node} among the ones of {@code siblings}
+     */
+    private static String getNodePath(Node node, String parentPath, SiblingIndex siblings, int index) {
+        if (siblings.count(index) > 1) {
+            return parentPath + "/" + node.getNodeName() + "[" + siblings.position(index) + "]";
         }
-        return i;
+        return parentPath + "/" + node.getNodeName();
     }
 }
@@ -1,66 +1,224 @@
 package io.jtest.utils.common;
 
+import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 public class XmlUtils {
 
+    private static final DocumentBuilderFactory BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+    /**
+     * Document builders are not thread-safe and costly to create: each thread reuses its own,
+     * reset after every parse.
+     */
+    private static final ThreadLocal<DocumentBuilder> BUILDERS = new ThreadLocal<>();
+    private static final ErrorHandler SILENT_ERROR_HANDLER = new ErrorHandler() {
+        @Override
+        public void warning(SAXParseException e) {
+        }
+
+        @Override
+        public void error(SAXParseException e) {
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) {
+        }
+    };
+
+    private static final SAXParserFactory SAX_PARSER_FACTORY = SAXParserFactory.newInstance();
+    /**
+     * Readers checking well-formedness, with no content handler: like document builders, one
+     * per thread.
+     */
+    private static final ThreadLocal<XMLReader> XML_READERS = new ThreadLocal<>();
+
+    private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+    /**
+     * Identity transformers, serializing without blank lines: like document builders, one per
+     * thread, reset after every use.
+     */
+    private static final ThreadLocal<Transformer> TRANSFORMERS = ThreadLocal.withInitial(() -> {
+        synchronized (TRANSFORMER_FACTORY) {
+            try {
+                return TRANSFORMER_FACTORY.newTransformer();
+            } catch (TransformerConfigurationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    });
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        // names and namespace declarations are reported as written, as in the parsed DOM
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    }
+
     private XmlUtils() {
 
     }
 
+    /**
+     * @return whether {@code xml} is well-formed; checked by reading it as SAX events, up to the
+     * first fatal error, without building its DOM
+     */
     public static boolean isValid(String xml) {
         try {
-            toNode(xml);
+            xmlReader().parse(new InputSource(new StringReader(xml)));
         } catch (SAXException | IOException | ParserConfigurationException e) {
             return false;
         }
         return true;
     }
 
-    public static Node toNode(String xml) throws ParserConfigurationException, IOException, SAXException {
-        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        builder.setErrorHandler(new ErrorHandler() {
-            @Override
-            public void warning(SAXParseException e) {
+    private static XMLReader xmlReader() throws ParserConfigurationException, SAXException {
+        XMLReader reader = XML_READERS.get();
+        if (reader == null) {
+            // factories are not thread-safe
+            synchronized (SAX_PARSER_FACTORY) {
+                reader = SAX_PARSER_FACTORY.newSAXParser().getXMLReader();
             }
+            reader.setErrorHandler(SILENT_ERROR_HANDLER);
+            XML_READERS.set(reader);
+        }
+        return reader;
+    }
 
-            @Override
-            public void error(SAXParseException e) {
-            }
+    public static Node toNode(String xml) throws ParserConfigurationException, IOException, SAXException {
+        return parse(new InputSource(new StringReader(xml)));
+    }
+
+    /**
+     * Parses XML bytes in the encoding given by their byte order mark or XML declaration,
+     * UTF-8 by default. The stream is read to its end.
+     */
+    public static Node toNode(InputStream xml) throws ParserConfigurationException, IOException, SAXException {
+        return parse(new InputSource(xml));
+    }
 
-            @Override
-            public void fatalError(SAXParseException e) {
+    /**
+     * Parses XML characters, ignoring the encoding of the XML declaration.
+     */
+    public static Node toNode(Reader xml) throws ParserConfigurationException, IOException, SAXException {
+        return parse(new InputSource(xml));
+    }
+
+    /**
+     * Opens XML bytes for reading as StAX events, in the encoding given by their byte order mark
+     * or XML declaration, UTF-8 by default. As with {@link #toNode(InputStream)}, the reader is
+     * not namespace aware. Closing the reader does not close {@code xml}.
+     */
+    public static XMLStreamReader toStreamReader(InputStream xml) throws XMLStreamException {
+        synchronized (INPUT_FACTORY) {
+            return INPUT_FACTORY.createXMLStreamReader(xml);
+        }
+    }
+
+    /**
+     * Opens XML characters for reading as StAX events, ignoring the encoding of the XML
+     * declaration. Closing the reader does not close {@code xml}.
+     */
+    public static XMLStreamReader toStreamReader(Reader xml) throws XMLStreamException {
+        synchronized (INPUT_FACTORY) {
+            return INPUT_FACTORY.createXMLStreamReader(xml);
+        }
+    }
+
+    /**
+     * @return a new empty document
+     */
+    public static Document newDocument() throws ParserConfigurationException {
+        return builder().newDocument();
+    }
+
+    private static Node parse(InputSource xml) throws ParserConfigurationException, IOException, SAXException {
+        DocumentBuilder builder = builder();
+        builder.setErrorHandler(SILENT_ERROR_HANDLER);
+        try {
+            return builder.parse(xml).getDocumentElement();
+        } finally {
+            // also drops the builder's references to the parsed document
+            builder.reset();
+        }
+    }
+
+    private static DocumentBuilder builder() throws ParserConfigurationException {
+        DocumentBuilder builder = BUILDERS.get();
+        if (builder == null) {
+            // factories are not thread-safe
+            synchronized (BUILDER_FACTORY) {
+                builder = BUILDER_FACTORY.newDocumentBuilder();
             }
-        });
-        return builder.parse(new ByteArrayInputStream(xml.getBytes())).getDocumentElement();
+            BUILDERS.set(builder);
+        }
+        return builder;
     }
 
+    /**
+     * @return {@code xml} indented, without XML declaration and without blank lines
+     */
     public static String toString(Node xml) throws TransformerException {
         StringWriter writer = new StringWriter();
-        Transformer trans = TransformerFactory.newInstance().newTransformer();
-        trans.setOutputProperty(OutputKeys.INDENT, "yes");
-        trans.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        trans.transform(new DOMSource(xml), new StreamResult(writer));
-        return writer.toString().replaceAll("(?m)^[ \t]*\r?\n", "");
+        write(xml, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Writes {@code xml} as {@link #toString(Node)} formats it. The writer is not closed.
+     */
+    public static void write(Node xml, Writer out) throws TransformerException {
+        BlankLineFilterWriter writer = new BlankLineFilterWriter(out);
+        Transformer transformer = TRANSFORMERS.get();
+        try {
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            // the blank lines are dropped as they are written, rather than from the whole output
+            transformer.transform(new DOMSource(xml), new StreamResult(writer));
+            writer.finish();
+        } catch (IOException e) {
+            throw new TransformerException(e);
+        } finally {
+            transformer.reset();
+        }
+    }
+
+    /**
+     * Writes {@code xml} in UTF-8, as {@link #toString(Node)} formats it. The stream is not closed.
+     */
+    public static void write(Node xml, OutputStream out) throws TransformerException {
+        write(xml, new OutputStreamWriter(out, StandardCharsets.UTF_8));
     }
 
     public static <R> Map<String, R> walkXmlAndProcessNodes(Node xml, Function<String, R> processFunction) {
@@ -0,0 +1,49 @@
+package io.jtest.utils.exceptions;
+
+/**
+ * Thrown when matching an actual value against an expected regex takes more steps or more
+ * time than the active {@link io.jtest.utils.matcher.RegexBudget} allows.
+ *
+ * <p>Unlike a mismatch, this aborts the whole comparison: the expected value is reported
+ * together with its location in the expected document, if known, so the offending fixture can
+ * be fixed.
+ */
+public class RegexBudgetExceededException extends RuntimeException {
+
+    private final String expected;
+    private final String path;
+    private final String budget;
+
+    public RegexBudgetExceededException(String expected, String budget) {
+        this(expected, "", budget);
+    }
+
+    private RegexBudgetExceededException(String expected, String path, String budget) {
+        super("Matching against expected regex exceeded " + budget + (path.isEmpty() ? "" : " at " + path)
+                + System.lineSeparator() + "Expected: " + expected);
+        this.expected = expected;
+        this.path = path;
+        this.budget = budget;
+    }
+
+    /**
+     * @return the same failure, located at {@code path} (a JSON Pointer or an XPath)
+     */
+    public RegexBudgetExceededException atPath(String path) {
+        return new RegexBudgetExceededException(expected, path != null ? path : "", budget);
+    }
+
+    /**
+     * @return the expected value whose regex was too expensive
+     */
+    public String getExpected() {
+        return expected;
+    }
+
+    /**
+     * @return location of the expected value within the expected document; empty if unknown
+     */
+    public String getPath() {
+        return path;
+    }
+}
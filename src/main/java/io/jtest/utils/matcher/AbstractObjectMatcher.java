@@ -15,19 +15,33 @@ abstract class AbstractObjectMatcher<T> {
             If expected object contains any unintentional regexes, then quote them between \\Q and \\E delimiters.
             For disabling case-sensitivity, use (?i) and (?-i) modifiers.""";
 
-    protected final String message;
-    protected final String negativeMatchMessage;
+    protected final String userMessage;
     protected final T expected;
     protected final T actual;
     protected final Set<MatchCondition> matchConditions;
 
     protected AbstractObjectMatcher(String message, Object expected, Object actual, Set<MatchCondition> matchConditions) throws InvalidTypeException {
-        this.expected = convert(expected);
-        this.actual = convert(actual);
         this.matchConditions = matchConditions != null ? matchConditions : new HashSet<>();
-        String userPrefix = message != null ? message + System.lineSeparator() : "";
-        this.message = userPrefix + matchTypeSuffix();
-        this.negativeMatchMessage = message == null ? negativeMatchMessage() : message + System.lineSeparator() + negativeMatchMessage();
+        this.expected = convertExpected(expected);
+        this.actual = convertActual(actual);
+        this.userMessage = message;
+    }
+
+    /**
+     * Assertion message for a failed match: the user-provided message followed by
+     * {@link #matchTypeSuffix()}. Built on demand, so that successful matches, which are the
+     * vast majority of the nested ones, never pay for it.
+     */
+    protected String failureMessage() {
+        return userMessage != null ? userMessage + System.lineSeparator() + matchTypeSuffix() : matchTypeSuffix();
+    }
+
+    /**
+     * Assertion message for a negative match that unexpectedly succeeded: the user-provided
+     * message followed by {@link #negativeMatchMessage()}. Built on demand.
+     */
+    protected String negativeFailureMessage() {
+        return userMessage != null ? userMessage + System.lineSeparator() + negativeMatchMessage() : negativeMatchMessage();
     }
 
     /**
@@ -48,6 +62,23 @@ abstract class AbstractObjectMatcher<T> {
 
     abstract T convert(Object value) throws InvalidTypeException;
 
+    /**
+     * Converts the expected value; same as {@link #convert(Object)} unless overridden to reuse
+     * previously converted values.
+     */
+    T convertExpected(Object value) throws InvalidTypeException {
+        return convert(value);
+    }
+
+    /**
+     * Converts the actual value, once {@link #expected} and {@link #matchConditions} are set;
+     * same as {@link #convert(Object)} unless overridden to read only what the expected value
+     * needs.
+     */
+    T convertActual(Object value) throws InvalidTypeException {
+        return convert(value);
+    }
+
     /**
      * @return properties captured after the match
      * Expected object can contain placeholders for capturing values from the actual object
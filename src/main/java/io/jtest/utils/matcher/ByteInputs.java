@@ -0,0 +1,55 @@
+package io.jtest.utils.matcher;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Byte-level values the JSON and XML matchers parse directly, instead of through a string
+ * decoded with some charset: byte arrays, byte buffers, input streams and files. Their
+ * encoding is the one the format itself declares or implies: UTF-8, UTF-16 or UTF-32 as
+ * detected from the first bytes for JSON (RFC 8259), the byte order mark or the XML
+ * declaration for XML. Content in another charset can be passed as a {@code Reader}.
+ */
+final class ByteInputs {
+
+    private ByteInputs() {
+
+    }
+
+    static boolean isByteInput(Object value) {
+        return value instanceof byte[] || value instanceof ByteBuffer || value instanceof InputStream
+                || value instanceof Path;
+    }
+
+    /**
+     * Opens a {@link #isByteInput(Object) byte-level} value for reading. A byte buffer is read
+     * from its position to its limit and left unchanged. Closing the returned stream closes a
+     * file opened here, but not a stream given by the caller.
+     */
+    static InputStream open(Object value) throws IOException {
+        if (value instanceof byte[] bytes) {
+            return new ByteArrayInputStream(bytes);
+        }
+        if (value instanceof ByteBuffer buffer) {
+            return buffer.hasArray()
+                    ? new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+                    : new ByteBufferBackedInputStream(buffer.duplicate());
+        }
+        if (value instanceof Path path) {
+            return Files.newInputStream(path);
+        }
+        return new FilterInputStream((InputStream) value) {
+            @Override
+            public void close() {
+                // left open for the caller
+            }
+        };
+    }
+}
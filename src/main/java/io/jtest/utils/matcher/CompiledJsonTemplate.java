@@ -0,0 +1,38 @@
+package io.jtest.utils.matcher;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jtest.utils.exceptions.InvalidTypeException;
+import io.jtest.utils.matcher.comparators.json.JsonTemplate;
+import io.jtest.utils.matcher.condition.MatchCondition;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON {@link CompiledTemplate}. Each match runs a {@link JsonMatcher} with the pre-compiled
+ * {@link JsonTemplate}, so the expected JSON is neither parsed nor compiled again; only when
+ * the template does not match does the matcher build a diff for the assertion error.
+ */
+class CompiledJsonTemplate implements CompiledTemplate {
+
+    private final JsonNode expected;
+    private final Set<MatchCondition> matchConditions;
+    private final JsonTemplate template;
+
+    CompiledJsonTemplate(Object expected, Set<MatchCondition> matchConditions) throws InvalidTypeException {
+        this.expected = JsonMatcher.toJsonNode(expected);
+        this.matchConditions = matchConditions.isEmpty() ? EnumSet.noneOf(MatchCondition.class) : EnumSet.copyOf(matchConditions);
+        this.template = JsonTemplate.compile(this.expected, this.matchConditions);
+    }
+
+    @Override
+    public Map<String, Object> match(String message, Object actual) {
+        try {
+            return new JsonMatcher(message, expected, actual, new HashSet<>(matchConditions), template).match();
+        } catch (InvalidTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
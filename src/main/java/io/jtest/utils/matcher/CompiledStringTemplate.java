@@ -0,0 +1,51 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.exceptions.InvalidTypeException;
+import io.jtest.utils.matcher.condition.MatchCondition;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * String {@link CompiledTemplate}. The expected value is classified and its pattern compiled
+ * once; a regular {@link StringMatcher} is only created to report a mismatch.
+ */
+class CompiledStringTemplate implements CompiledTemplate {
+
+    private final Object expected;
+    private final Set<MatchCondition> matchConditions;
+    private final ExpectedString expectedString;
+
+    CompiledStringTemplate(Object expected, Set<MatchCondition> matchConditions) {
+        this.expected = expected;
+        this.matchConditions = matchConditions.isEmpty() ? EnumSet.noneOf(MatchCondition.class) : EnumSet.copyOf(matchConditions);
+        this.expectedString = expected != null ? ExpectedString.compile(StringMatcher.convertToString(expected),
+                this.matchConditions.contains(MatchCondition.REGEX_DISABLED)) : null;
+    }
+
+    @Override
+    public Map<String, Object> match(String message, Object actual) {
+        if (expectedString != null && !matchConditions.contains(MatchCondition.DO_NOT_MATCH)) {
+            String placeholder = expectedString.standalonePlaceholder();
+            if (placeholder != null) {
+                Map<String, Object> properties = new HashMap<>();
+                properties.put(placeholder, actual);
+                return properties;
+            }
+            if (actual != null) {
+                Map<String, Object> properties = expectedString.match(StringMatcher.convertToString(actual));
+                if (properties != null) {
+                    return properties;
+                }
+            }
+        }
+        try {
+            return new StringMatcher(message, expected, actual, new HashSet<>(matchConditions)).match();
+        } catch (InvalidTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.jtest.utils.matcher;
+
+import java.util.Map;
+
+/**
+ * An expected value parsed and analysed once, ready to be matched against any number of actual
+ * values, from any thread. Obtain one from {@link ObjectMatcher#compileJson},
+ * {@link ObjectMatcher#compileXml}, {@link ObjectMatcher#compileXmlStream} or
+ * {@link ObjectMatcher#compileString}.
+ *
+ * <p>Matching a template behaves exactly like the corresponding {@code ObjectMatcher.matchXxx}
+ * call with the same expected value and conditions, but skips re-parsing and re-analysing the
+ * expected side.
+ *
+ * <pre>{@code
+ *   CompiledTemplate template = ObjectMatcher.compileJson("{\"id\":\"~[id]\"}");
+ *   for (String response : responses) {
+ *       template.match(response).get("id");
+ *   }
+ * }</pre>
+ */
+public interface CompiledTemplate {
+
+    /**
+     * @param message optional message prepended to the assertion error; may be {@code null}
+     * @return placeholders captured from {@code actual}
+     * @throws AssertionError on mismatch
+     * @throws RuntimeException if {@code actual} cannot be converted to the template's type
+     */
+    Map<String, Object> match(String message, Object actual);
+
+    /**
+     * Same as {@link #match(String, Object)} without a message.
+     */
+    default Map<String, Object> match(Object actual) {
+        return match(null, actual);
+    }
+}
@@ -0,0 +1,38 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.exceptions.InvalidTypeException;
+import io.jtest.utils.matcher.comparators.xml.XmlTemplate;
+import io.jtest.utils.matcher.condition.MatchCondition;
+import org.w3c.dom.Node;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streamed XML {@link CompiledTemplate}. Each match runs an {@link XmlStreamMatcher} with the
+ * pre-compiled {@link XmlTemplate}, which only reads the expected DOM while being compiled, so
+ * all threads share it.
+ */
+class CompiledXmlStreamTemplate implements CompiledTemplate {
+
+    private final Node expected;
+    private final Set<MatchCondition> matchConditions;
+    private final XmlTemplate template;
+
+    CompiledXmlStreamTemplate(Object expected, Set<MatchCondition> matchConditions) throws InvalidTypeException {
+        this.expected = XmlMatcher.toXmlNode(expected);
+        this.matchConditions = matchConditions.isEmpty() ? EnumSet.noneOf(MatchCondition.class) : EnumSet.copyOf(matchConditions);
+        this.template = XmlTemplate.compile(this.expected, this.matchConditions);
+    }
+
+    @Override
+    public Map<String, Object> match(String message, Object actual) {
+        try {
+            return new XmlStreamMatcher(message, expected, actual, new HashSet<>(matchConditions), template).match();
+        } catch (InvalidTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
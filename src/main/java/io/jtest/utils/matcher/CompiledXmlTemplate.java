@@ -0,0 +1,55 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.common.XmlUtils;
+import io.jtest.utils.exceptions.InvalidTypeException;
+import io.jtest.utils.matcher.condition.MatchCondition;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * XML {@link CompiledTemplate}. The expected document is parsed once; since DOM trees are not
+ * safe for concurrent reads, each thread matches against its own copy of it, imported into a
+ * document of its own.
+ */
+class CompiledXmlTemplate implements CompiledTemplate {
+
+    private final Node expected;
+    private final Set<MatchCondition> matchConditions;
+    private final ThreadLocal<Node> threadExpected;
+
+    CompiledXmlTemplate(Object expected, Set<MatchCondition> matchConditions) throws InvalidTypeException {
+        this.expected = XmlMatcher.toXmlNode(expected);
+        this.matchConditions = matchConditions.isEmpty() ? EnumSet.noneOf(MatchCondition.class) : EnumSet.copyOf(matchConditions);
+        this.threadExpected = ThreadLocal.withInitial(this::copyOfExpected);
+    }
+
+    private Node copyOfExpected() {
+        synchronized (expected) {
+            if (expected instanceof Document) {
+                return expected.cloneNode(true);
+            }
+            try {
+                Document document = XmlUtils.newDocument();
+                return document.appendChild(document.importNode(expected, true));
+            } catch (ParserConfigurationException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> match(String message, Object actual) {
+        try {
+            return new XmlMatcher(message, threadExpected.get(), actual, new HashSet<>(matchConditions)).match();
+        } catch (InvalidTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
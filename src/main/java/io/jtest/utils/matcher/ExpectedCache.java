@@ -0,0 +1,104 @@
+package io.jtest.utils.matcher;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jtest.utils.common.LruCache;
+import io.jtest.utils.exceptions.InvalidTypeException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * Optional process-wide cache of the expected JSON and XML trees parsed by {@link JsonMatcher}
+ * and {@link XmlMatcher}, so that an expected template reused across many matches is parsed
+ * only once. Entries are keyed by the content of the expected string; expected values given as
+ * objects or nodes are converted as usual, since they may change between matches.
+ *
+ * <p>The cache is disabled by default. Enable it with {@link #setMaxSize(int)}; it then evicts
+ * the least recently used tree. Inspect its effectiveness with {@link #stats()}.
+ *
+ * <p>Cached JSON trees are shared by all matches and are only ever read by the comparators.
+ * Since DOM trees are not safe even for concurrent reads, each XML match gets its own copy of
+ * the cached tree, imported into a document of its own, which is still much cheaper than
+ * parsing.
+ */
+public final class ExpectedCache {
+
+    private static final LruCache<Key, Object> CACHE = new LruCache<>(0);
+
+    private ExpectedCache() {
+
+    }
+
+    /**
+     * Changes the maximum number of cached trees. {@code 0} disables the cache.
+     *
+     * @throws IllegalArgumentException if {@code maxSize} is negative
+     */
+    public static void setMaxSize(int maxSize) {
+        CACHE.setMaxSize(maxSize);
+    }
+
+    public static int getMaxSize() {
+        return CACHE.getMaxSize();
+    }
+
+    /**
+     * @return hit / miss / eviction counters and the current size of the cache
+     */
+    public static LruCache.Stats stats() {
+        return CACHE.stats();
+    }
+
+    /**
+     * Drops every cached tree.
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    static JsonNode json(String expected) throws InvalidTypeException {
+        if (CACHE.getMaxSize() == 0) {
+            return JsonMatcher.toJsonNode(expected);
+        }
+        return (JsonNode) valueOf(CACHE.get(new Key(Type.JSON, expected), k -> {
+            try {
+                return JsonMatcher.toJsonNode(expected);
+            } catch (InvalidTypeException e) {
+                return e;
+            }
+        }));
+    }
+
+    static Node xml(String expected) throws InvalidTypeException {
+        if (CACHE.getMaxSize() == 0) {
+            return XmlMatcher.toXmlNode(expected);
+        }
+        Node cached = (Node) valueOf(CACHE.get(new Key(Type.XML, expected), k -> {
+            try {
+                return XmlMatcher.toXmlNode(expected);
+            } catch (InvalidTypeException e) {
+                return e;
+            }
+        }));
+        synchronized (cached) {
+            Document document = cached.getOwnerDocument().getImplementation().createDocument(null, null, null);
+            return document.appendChild(document.importNode(cached, true));
+        }
+    }
+
+    /**
+     * Invalid expected values are cached as well, so they are not parsed again on every match.
+     */
+    private static Object valueOf(Object cached) throws InvalidTypeException {
+        if (cached instanceof InvalidTypeException e) {
+            throw e;
+        }
+        return cached;
+    }
+
+    private enum Type {
+        JSON, XML
+    }
+
+    private record Key(Type type, String expected) {
+    }
+}
@@ -0,0 +1,243 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.common.RegexUtils;
+import io.jtest.utils.common.StringParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static io.jtest.utils.matcher.StringMatcher.CAPTURE_PLACEHOLDER_PREFIX;
+import static io.jtest.utils.matcher.StringMatcher.CAPTURE_PLACEHOLDER_SUFFIX;
+
+/**
+ * An expected string value analysed once and ready to be matched against any number of
+ * actual strings, from any thread.
+ *
+ * <p>The value is classified as a plain literal, a regex, a template with {@code ~[name]}
+ * placeholders, or a single standalone placeholder, and its pattern (if it needs one) is
+ * compiled up front. Matching follows exactly the rules of {@link StringMatcher}.
+ */
+public final class ExpectedString {
+
+    public enum Kind {
+        /** No regex metacharacters: matches only an identical string. */
+        LITERAL,
+        /** Matched as a Java regex; falls back to literal equality if the regex is invalid. */
+        REGEX,
+        /** Contains {@code ~[name]} placeholders mixed with other text. */
+        PLACEHOLDERS,
+        /** Consists of exactly one {@code ~[name]} placeholder and matches anything. */
+        STANDALONE_PLACEHOLDER
+    }
+
+    static final int PATTERN_FLAGS = Pattern.DOTALL | Pattern.MULTILINE;
+    static final Pattern CAPTURE_GROUP_PATTERN = Pattern.compile(Pattern.quote(CAPTURE_PLACEHOLDER_PREFIX) + "(.*?)"
+            + Pattern.quote(CAPTURE_PLACEHOLDER_SUFFIX), PATTERN_FLAGS);
+
+    private final String value;
+    private final Kind kind;
+    private final List<String> placeholderNames;
+    private final Pattern pattern;
+    private final String[] literalSegments;
+
+    private ExpectedString(String value, Kind kind, List<String> placeholderNames, Pattern pattern) {
+        this(value, kind, placeholderNames, pattern, null);
+    }
+
+    private ExpectedString(String value, Kind kind, List<String> placeholderNames, Pattern pattern, String[] literalSegments) {
+        this.value = value;
+        this.kind = kind;
+        this.placeholderNames = placeholderNames;
+        this.pattern = pattern;
+        this.literalSegments = literalSegments;
+    }
+
+    /**
+     * @param expected      the expected value; must not be {@code null}
+     * @param regexDisabled {@code true} to compare literally, as with
+     *                      {@link io.jtest.utils.matcher.condition.MatchCondition#REGEX_DISABLED}
+     */
+    public static ExpectedString compile(String expected, boolean regexDisabled) {
+        if (RegexUtils.isLiteral(expected)) {
+            // no metacharacters and, since '[' is one of them, no placeholders either
+            return new ExpectedString(expected, Kind.LITERAL, Collections.emptyList(), null);
+        }
+        List<String> placeholderNames = StringParser.captureValues(expected, CAPTURE_GROUP_PATTERN);
+        if (placeholderNames.size() == 1
+                && expected.equals(CAPTURE_PLACEHOLDER_PREFIX + placeholderNames.get(0) + CAPTURE_PLACEHOLDER_SUFFIX)) {
+            return new ExpectedString(expected, Kind.STANDALONE_PLACEHOLDER, placeholderNames, null);
+        }
+        if (!placeholderNames.isEmpty()) {
+            String[] literalSegments = literalSegments(expected, placeholderNames.size(), regexDisabled);
+            if (literalSegments != null) {
+                return new ExpectedString(expected, Kind.PLACEHOLDERS, placeholderNames, null, literalSegments);
+            }
+            return new ExpectedString(expected, Kind.PLACEHOLDERS, placeholderNames,
+                    patternWithPlaceholdersAsCaptureGroups(expected, placeholderNames, regexDisabled));
+        }
+        if (regexDisabled) {
+            return new ExpectedString(expected, Kind.LITERAL, Collections.emptyList(), null);
+        }
+        Pattern pattern;
+        try {
+            pattern = PatternCache.get(expected, Kind.REGEX, PATTERN_FLAGS, false, () -> Pattern.compile(expected, PATTERN_FLAGS));
+        } catch (PatternSyntaxException e) {
+            pattern = null;
+        }
+        return new ExpectedString(expected, Kind.REGEX, Collections.emptyList(), pattern);
+    }
+
+    public String value() {
+        return value;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public List<String> placeholderNames() {
+        return placeholderNames;
+    }
+
+    /**
+     * @return the placeholder name if this is a {@link Kind#STANDALONE_PLACEHOLDER}, {@code null} otherwise
+     */
+    public String standalonePlaceholder() {
+        return kind == Kind.STANDALONE_PLACEHOLDER ? placeholderNames.get(0) : null;
+    }
+
+    /**
+     * Matches {@code actual} against this expected value. A standalone placeholder captures
+     * {@code actual} as is. Regex matching is limited by the current {@link RegexBudget}.
+     *
+     * @return the captured placeholder values (empty if there are none), or {@code null} if
+     * {@code actual} does not match
+     * @throws io.jtest.utils.exceptions.RegexBudgetExceededException if the regex needs more
+     *                                                               than the current budget
+     */
+    public Map<String, Object> match(String actual) {
+        if (kind == Kind.STANDALONE_PLACEHOLDER) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put(placeholderNames.get(0), actual);
+            return properties;
+        }
+        if (actual == null) {
+            return null;
+        }
+        switch (kind) {
+            case LITERAL -> {
+                return value.equals(actual) ? new HashMap<>() : null;
+            }
+            case REGEX -> {
+                boolean matches = pattern != null ? pattern.matcher(RegexBudget.current().guard(actual, value)).matches()
+                        : value.equals(actual);
+                return matches ? new HashMap<>() : null;
+            }
+            default -> {
+                return matchWithCaptureGroups(actual);
+            }
+        }
+    }
+
+    private Map<String, Object> matchWithCaptureGroups(String actual) {
+        List<String> capturedValues = literalSegments != null ? captureBetweenLiteralSegments(actual)
+                : StringParser.captureValues(RegexBudget.current().guard(actual, value), pattern, true);
+        if (capturedValues.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> properties = new HashMap<>();
+        int limit = Math.min(capturedValues.size(), placeholderNames.size());
+        for (int i = 0; i < limit; i++) {
+            properties.put(placeholderNames.get(i), capturedValues.get(i));
+        }
+        return properties;
+    }
+
+    /**
+     * Captures the text between the literal segments, with the same result as the greedy
+     * {@code (.*)} groups of {@link #patternWithPlaceholdersAsCaptureGroups}: each group is as
+     * long as possible, which amounts to placing every inner segment at its last occurrence that
+     * still precedes the segment after it. Segments are located right to left with
+     * {@link String#lastIndexOf(String, int)} over disjoint regions of {@code actual}, so the
+     * cost is linear in its length and nothing is ever backtracked.
+     *
+     * @return captured values in placeholder order; empty if {@code actual} does not match
+     */
+    private List<String> captureBetweenLiteralSegments(String actual) {
+        String prefix = literalSegments[0];
+        String suffix = literalSegments[literalSegments.length - 1];
+        if (actual.length() < prefix.length() + suffix.length() || !actual.startsWith(prefix) || !actual.endsWith(suffix)) {
+            return Collections.emptyList();
+        }
+        int groups = literalSegments.length - 1;
+        int[] segmentStarts = new int[literalSegments.length];
+        segmentStarts[groups] = actual.length() - suffix.length();
+        for (int i = groups - 1; i > 0; i--) {
+            int start = actual.lastIndexOf(literalSegments[i], segmentStarts[i + 1] - literalSegments[i].length());
+            if (start < prefix.length()) {
+                return Collections.emptyList();
+            }
+            segmentStarts[i] = start;
+        }
+        List<String> capturedValues = new ArrayList<>(groups);
+        for (int i = 0; i < groups; i++) {
+            int groupStart = i == 0 ? prefix.length() : segmentStarts[i] + literalSegments[i].length();
+            capturedValues.add(actual.substring(groupStart, segmentStarts[i + 1]));
+        }
+        return capturedValues;
+    }
+
+    /**
+     * Splits {@code source} around its placeholders, if the text between them has to be
+     * matched literally anyway: because regexes are disabled, because {@code source} is not a
+     * valid regex (and is then quoted as a whole), or because the text holds no metacharacters.
+     *
+     * @return the {@code placeholderCount + 1} literal segments, or {@code null} if {@code source}
+     * mixes placeholders with real regex syntax
+     */
+    private static String[] literalSegments(String source, int placeholderCount, boolean regexDisabled) {
+        String[] segments = new String[placeholderCount + 1];
+        Matcher matcher = CAPTURE_GROUP_PATTERN.matcher(source);
+        int segment = 0;
+        int segmentStart = 0;
+        while (matcher.find()) {
+            segments[segment++] = source.substring(segmentStart, matcher.start());
+            segmentStart = matcher.end();
+        }
+        segments[segment] = source.substring(segmentStart);
+        if (regexDisabled) {
+            return segments;
+        }
+        for (String literal : segments) {
+            if (!RegexUtils.isLiteral(literal)) {
+                return RegexUtils.isRegex(source) ? null : segments;
+            }
+        }
+        return segments;
+    }
+
+    private static Pattern patternWithPlaceholdersAsCaptureGroups(String source, List<String> placeholderNames, boolean regexDisabled) {
+        return PatternCache.get(source, Kind.PLACEHOLDERS, PATTERN_FLAGS, regexDisabled,
+                () -> compilePatternWithPlaceholdersAsCaptureGroups(source, placeholderNames, regexDisabled));
+    }
+
+    private static Pattern compilePatternWithPlaceholdersAsCaptureGroups(String source, List<String> placeholderNames, boolean regexDisabled) {
+        String s = source;
+        boolean allowOtherRegexes = RegexUtils.isRegex(source) && !regexDisabled;
+        for (String key : placeholderNames) {
+            s = s.replace(CAPTURE_PLACEHOLDER_PREFIX + key + CAPTURE_PLACEHOLDER_SUFFIX, allowOtherRegexes ? "(.*)" : "\\E(.*)\\Q");
+        }
+        return Pattern.compile(allowOtherRegexes ? s : "\\Q" + s + "\\E", PATTERN_FLAGS);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
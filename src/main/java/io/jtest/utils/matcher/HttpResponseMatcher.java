@@ -45,7 +45,7 @@ class HttpResponseMatcher extends AbstractObjectMatcher<PlainHttpResponse> {
             } catch (AssertionError e) {
                 return new HashMap<>();
             }
-            AssertionFailureBuilder.assertionFailure().message(negativeMatchMessage).includeValuesInMessage(false)
+            AssertionFailureBuilder.assertionFailure().message(negativeFailureMessage()).includeValuesInMessage(false)
                     .expected(expected).actual(actual).buildAndThrow();
         }
         return positiveMatch();
@@ -56,7 +56,8 @@ class HttpResponseMatcher extends AbstractObjectMatcher<PlainHttpResponse> {
         Set<MatchCondition> headersConditions = filteredMatchConditions(matchConditions,
                 cond -> cond != MatchCondition.JSON_NON_EXTENSIBLE_ARRAY
                         && cond != MatchCondition.JSON_NON_EXTENSIBLE_OBJECT
-                        && cond != MatchCondition.JSON_STRICT_ORDER_ARRAY);
+                        && cond != MatchCondition.JSON_STRICT_ORDER_ARRAY
+                        && cond != MatchCondition.JSON_PARALLEL);
         try {
             matchComponent("statuses", expectedStatus, actual.status(),
                     MatchCondition.DO_NOT_MATCH_HTTP_RESPONSE_BY_STATUS, matchConditions,
@@ -94,13 +95,13 @@ class HttpResponseMatcher extends AbstractObjectMatcher<PlainHttpResponse> {
             }
             if (matched) {
                 AssertionFailureBuilder.assertionFailure()
-                        .message(this.message + System.lineSeparator() + "HTTP Response " + label + " match!" + System.lineSeparator())
+                        .message(failureMessage() + System.lineSeparator() + "HTTP Response " + label + " match!" + System.lineSeparator())
                         .expected(expected).actual(actual)
                         .includeValuesInMessage(false).buildAndThrow();
             }
         } else {
             properties.putAll(matcher.match(
-                    "HTTP Response " + label + " do not match!" + System.lineSeparator() + message,
+                    "HTTP Response " + label + " do not match!" + System.lineSeparator() + failureMessage(),
                     expected, actual, conditions));
         }
     }
@@ -1,16 +1,26 @@
 package io.jtest.utils.matcher;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.StreamReadFeature;
 import com.fasterxml.jackson.databind.JsonNode;
-import io.json.compare.CompareMode;
-import io.json.compare.JSONCompare;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.json.compare.util.JsonUtils;
 import io.jtest.utils.exceptions.InvalidTypeException;
 import io.jtest.utils.matcher.comparators.json.CustomJsonComparator;
+import io.jtest.utils.matcher.comparators.json.JsonRegions;
+import io.jtest.utils.matcher.comparators.json.JsonTemplate;
 import io.jtest.utils.matcher.condition.MatchCondition;
 import org.junit.jupiter.api.AssertionFailureBuilder;
 
-import java.util.EnumSet;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -18,15 +28,132 @@ import static io.json.compare.JSONCompare.prettyPrint;
 
 
 public class JsonMatcher extends AbstractObjectMatcher<JsonNode> {
-    private final CustomJsonComparator comparator;
+    private static final JsonFactory STREAM_FACTORY = JsonFactory.builder()
+            .streamReadConstraints(StreamReadConstraints.builder().maxNestingDepth(Integer.MAX_VALUE)
+                    .maxNumberLength(Integer.MAX_VALUE).maxStringLength(Integer.MAX_VALUE).build())
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE).build();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JsonTemplate template;
+    private final Class<?> readFrom;
 
     public JsonMatcher(String message, Object expected, Object actual, Set<MatchCondition> matchConditions) throws InvalidTypeException {
-        super(message, expected, actual, matchConditions);
-        this.comparator = new CustomJsonComparator(matchConditions);
+        this(message, Inputs.of(expected, actual, matchConditions, null), matchConditions);
+    }
+
+    /**
+     * @param template {@code expected} compiled under the same match conditions
+     */
+    JsonMatcher(String message, JsonNode expected, Object actual, Set<MatchCondition> matchConditions,
+                JsonTemplate template) throws InvalidTypeException {
+        this(message, Inputs.of(expected, actual, matchConditions, template), matchConditions);
+    }
+
+    private JsonMatcher(String message, Inputs inputs, Set<MatchCondition> matchConditions) throws InvalidTypeException {
+        super(message, inputs.expected(), inputs.actual(), matchConditions);
+        this.template = inputs.template();
+        this.readFrom = inputs.readFrom();
+    }
+
+    /**
+     * Both sides converted to JSON, before they reach the superclass constructor.
+     *
+     * @param template the template {@code actual} was read with, if any
+     * @param readFrom type of the value {@code actual} was read from in streaming mode, keeping
+     *                 only what the template looks at; {@code null} if it is the whole actual JSON
+     */
+    private record Inputs(JsonNode expected, JsonNode actual, JsonTemplate template, Class<?> readFrom) {
+
+        /**
+         * An actual JSON given as bytes, a {@code Path}, an {@code InputStream} or a {@code Reader}
+         * is read in streaming mode: only the parts the expected JSON asserts on are materialized,
+         * see {@link JsonTemplate#read}. It is read with {@code template} or, if there is none,
+         * with a template compiled here, once. A stream is left open.
+         */
+        static Inputs of(Object expected, Object actual, Set<MatchCondition> matchConditions,
+                         JsonTemplate template) throws InvalidTypeException {
+            JsonNode expectedNode = expected instanceof String value ? ExpectedCache.json(value) : toJsonNode(expected);
+            if (!isJsonText(actual)) {
+                return new Inputs(expectedNode, toJsonNode(actual), template, null);
+            }
+            JsonTemplate reader = template != null ? template
+                    : JsonTemplate.compile(expectedNode, matchConditions != null ? matchConditions : Set.of());
+            return new Inputs(expectedNode, parse(actual, reader::read), reader, actual.getClass());
+        }
     }
 
     @Override
     JsonNode convert(Object value) throws InvalidTypeException {
+        return toJsonNode(value);
+    }
+
+    /**
+     * Matches each expected JSON against the region of {@code actual} at its JSON Pointer, with
+     * the same conditions. Nothing else of {@code actual} is compared; if it is bytes
+     * ({@code byte[]} or {@code ByteBuffer}), a {@code Path}, an {@code InputStream} or a
+     * {@code Reader}, nothing else is materialized
+     * either, and it is read no further than the last region.
+     *
+     * @param expectedByPointer expected JSON by JSON Pointer ({@code ""} for the whole JSON)
+     * @return the placeholders captured from all regions
+     * @throws AssertionError           on mismatch, or if a pointer has no value in {@code actual}
+     * @throws IllegalArgumentException if a pointer is not a valid JSON Pointer
+     */
+    static Map<String, Object> matchAt(String message, Map<String, ?> expectedByPointer, Object actual,
+                                       Set<MatchCondition> matchConditions) throws InvalidTypeException {
+        Set<MatchCondition> conditions = matchConditions != null ? matchConditions : new HashSet<>();
+        Map<String, JsonNode> expected = new LinkedHashMap<>();
+        Map<String, JsonTemplate> templates = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : expectedByPointer.entrySet()) {
+            JsonNode expectedNode = entry.getValue() instanceof String value ? ExpectedCache.json(value) : toJsonNode(entry.getValue());
+            expected.put(entry.getKey(), expectedNode);
+            templates.put(entry.getKey(), JsonTemplate.compile(expectedNode, conditions));
+        }
+        Map<String, JsonNode> regions = regionsAt(templates, actual);
+        Map<String, Object> properties = new HashMap<>();
+        for (Map.Entry<String, JsonNode> entry : expected.entrySet()) {
+            String pointer = entry.getKey();
+            String regionMessage = (message != null ? message + System.lineSeparator() : "") + "At JSON Pointer \"" + pointer + "\"";
+            JsonNode region = regions.get(pointer);
+            if (region == null) {
+                if (conditions.contains(MatchCondition.DO_NOT_MATCH)) {
+                    continue;
+                }
+                AssertionFailureBuilder.assertionFailure().message(regionMessage + System.lineSeparator()
+                        + "No such value in actual JSON").buildAndThrow();
+            }
+            Inputs inputs = new Inputs(entry.getValue(), region, templates.get(pointer),
+                    isJsonText(actual) ? actual.getClass() : null);
+            properties.putAll(new JsonMatcher(regionMessage, inputs, new HashSet<>(conditions)).match());
+        }
+        return properties;
+    }
+
+    private static Map<String, JsonNode> regionsAt(Map<String, JsonTemplate> templates, Object actual) throws InvalidTypeException {
+        if (isJsonText(actual)) {
+            return parse(actual, parser -> JsonRegions.read(parser, templates));
+        }
+        JsonNode actualNode = toJsonNode(actual);
+        Map<String, JsonNode> regions = new HashMap<>();
+        for (String pointer : templates.keySet()) {
+            JsonNode region = actualNode.at(JsonPointer.compile(pointer));
+            if (!region.isMissingNode()) {
+                regions.put(pointer, region);
+            }
+        }
+        return regions;
+    }
+
+    static JsonNode toJsonNode(Object value) throws InvalidTypeException {
+        if (isJsonText(value)) {
+            return parse(value, parser -> {
+                JsonNode node = MAPPER.readTree(parser);
+                if (node == null) {
+                    throw new IOException("No JSON content");
+                }
+                return node;
+            });
+        }
         try {
             return JsonUtils.toJson(value);
         } catch (Exception e) {
@@ -34,6 +161,27 @@ public class JsonMatcher extends AbstractObjectMatcher<JsonNode> {
         }
     }
 
+    /**
+     * @return {@code true} if {@code value} is JSON text to be parsed directly: a
+     * {@link ByteInputs byte-level} value or a {@code Reader}
+     */
+    private static boolean isJsonText(Object value) {
+        return value instanceof Reader || ByteInputs.isByteInput(value);
+    }
+
+    private interface ParserReader<R> {
+        R read(JsonParser parser) throws IOException;
+    }
+
+    private static <R> R parse(Object value, ParserReader<R> reader) throws InvalidTypeException {
+        try (InputStream bytes = value instanceof Reader ? null : ByteInputs.open(value);
+             JsonParser parser = bytes != null ? STREAM_FACTORY.createParser(bytes) : STREAM_FACTORY.createParser((Reader) value)) {
+            return reader.read(parser);
+        } catch (IOException e) {
+            throw new InvalidTypeException("Invalid JSON NODE", e);
+        }
+    }
+
     @Override
     protected String matchTypeSuffix() {
         return "JSONs do not match" + System.lineSeparator() + System.lineSeparator() + ASSERTION_ERROR_HINT_MESSAGE +
@@ -49,62 +197,72 @@ public class JsonMatcher extends AbstractObjectMatcher<JsonNode> {
     @Override
     public Map<String, Object> match() {
         if (matchConditions.remove(MatchCondition.DO_NOT_MATCH)) {
-            try {
-                positiveMatch();
-            } catch (AssertionError e) {
+            if (!positiveOutcome().matched()) {
                 return new HashMap<>();
             }
-            AssertionFailureBuilder.assertionFailure().message(negativeMatchMessage).includeValuesInMessage(false)
-                    .expected(prettyPrint(expected)).actual(prettyPrint(actual)).buildAndThrow();
+            AssertionFailureBuilder.assertionFailure().message(negativeFailureMessage()).includeValuesInMessage(false)
+                    .expected(prettyPrint(expected)).actual(actualToString()).buildAndThrow();
+        }
+        MatchOutcome outcome = positiveOutcome();
+        if (!outcome.matched()) {
+            failMismatch();
         }
-        return positiveMatch();
+        return outcome.properties();
     }
 
-    private Map<String, Object> positiveMatch() {
-        try {
-            assertJsonsMatch();
-        } catch (AssertionError firstFailure) {
-            if (comparator.getFieldProperties().isEmpty()) {
-                throw firstFailure;
-            }
-            retryUntilFieldPropertiesDepleted();
-        }
-        return comparator.getValueProperties();
-    }
-
-    private void retryUntilFieldPropertiesDepleted() {
-        while (true) {
-            comparator.getDepletedFieldPropertyList().add(new HashMap<>(comparator.getFieldProperties()));
-            comparator.getFieldProperties().clear();
-            try {
-                assertJsonsMatch();
-                return;
-            } catch (AssertionError retryFailure) {
-                if (comparator.getFieldProperties().isEmpty()) {
-                    throw retryFailure;
-                }
-            }
+    /**
+     * Same as {@link #match()}, but reports a mismatch instead of throwing an {@link AssertionError}.
+     * The outcome also reports how many field-name bindings were retried.
+     */
+    public MatchOutcome tryMatch() {
+        // like match(), drops DO_NOT_MATCH from the conditions
+        boolean negate = matchConditions.remove(MatchCondition.DO_NOT_MATCH);
+        MatchOutcome outcome = positiveOutcome();
+        if (negate) {
+            return outcome.matched() ? MatchOutcome.mismatch(outcome.retries()) : MatchOutcome.matched(new HashMap<>(), outcome.retries());
         }
+        return outcome;
     }
 
-    private void assertJsonsMatch() {
-        JSONCompare.compare(expected, actual)
-                .comparator(comparator)
-                .modes(jsonCompareModes())
-                .message(message)
-                .assertMatches();
+    /**
+     * Same as {@link #match()}, but only tells whether the JSONs match. The verdict is the
+     * compiled {@link JsonTemplate}'s, which builds neither a diff nor a failure message.
+     */
+    public boolean matches() {
+        boolean negate = matchConditions.remove(MatchCondition.DO_NOT_MATCH);
+        return negate != positiveOutcome().matched();
     }
 
-    private Set<CompareMode> jsonCompareModes() {
-        Set<CompareMode> modes = EnumSet.noneOf(CompareMode.class);
-        for (MatchCondition condition : matchConditions) {
-            switch (condition) {
-                case JSON_NON_EXTENSIBLE_OBJECT -> modes.add(CompareMode.JSON_OBJECT_NON_EXTENSIBLE);
-                case JSON_NON_EXTENSIBLE_ARRAY -> modes.add(CompareMode.JSON_ARRAY_NON_EXTENSIBLE);
-                case JSON_STRICT_ORDER_ARRAY -> modes.add(CompareMode.JSON_ARRAY_STRICT_ORDER);
-                default -> { /* unrelated condition, ignore */ }
-            }
+    /**
+     * Matches with the compiled {@link JsonTemplate}, whose verdict is final. It resolves
+     * field-name placeholders by backtracking only over the subtrees where they were bound.
+     */
+    private MatchOutcome positiveOutcome() {
+        if (template == null) {
+            template = JsonTemplate.compile(expected, matchConditions);
         }
-        return modes;
+        return template.tryMatch(actual);
+    }
+
+    /**
+     * Throws the assertion error for a mismatch the template reported: the one {@code JSONCompare}
+     * explains the differences with or, should it find none or should the actual JSON have been
+     * read in streaming mode, one locating the mismatch in the expected JSON.
+     */
+    private void failMismatch() {
+        if (readFrom == null) {
+            new CustomJsonComparator(matchConditions).assertMatches(expected, actual, failureMessage());
+        }
+        AssertionFailureBuilder.assertionFailure().message(failureMessage() + "Mismatch at JSON Pointer \""
+                        + template.mismatchPointer(actual) + "\" of the expected JSON")
+                .expected(prettyPrint(expected)).actual(actualToString()).buildAndThrow();
+    }
+
+    /**
+     * @return the actual JSON for an assertion error; not the parts kept of an actual JSON read
+     * in streaming mode, which only the template can make sense of
+     */
+    private String actualToString() {
+        return readFrom == null ? prettyPrint(actual) : "<" + readFrom.getSimpleName() + " read as JSON>";
     }
 }
@@ -0,0 +1,89 @@
+package io.jtest.utils.matcher;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Result of a match that is reported rather than asserted: whether the values matched and, if
+ * so, the captured placeholder values.
+ *
+ * <p>Used by the comparators that try many candidate pairs (JSON fields and array elements, XML
+ * nodes and siblings), for which a mismatch is an ordinary answer and not worth an
+ * {@link AssertionError}. Public matching APIs still assert.
+ */
+public final class MatchOutcome {
+
+    private static final MatchOutcome MISMATCH = new MatchOutcome(false, Collections.emptyMap(), 0, 0);
+
+    private final boolean matched;
+    private final Map<String, Object> properties;
+    private final int retries;
+    private final int cacheHits;
+
+    private MatchOutcome(boolean matched, Map<String, Object> properties, int retries, int cacheHits) {
+        this.matched = matched;
+        this.properties = properties;
+        this.retries = retries;
+        this.cacheHits = cacheHits;
+    }
+
+    /**
+     * @param properties captured placeholder values; owned by the outcome from now on
+     */
+    public static MatchOutcome matched(Map<String, Object> properties) {
+        return matched(properties, 0);
+    }
+
+    /**
+     * @param retries number of alternatives rejected before the match was found
+     */
+    public static MatchOutcome matched(Map<String, Object> properties, int retries) {
+        return new MatchOutcome(true, properties, retries, 0);
+    }
+
+    public static MatchOutcome mismatch() {
+        return MISMATCH;
+    }
+
+    /**
+     * @param retries number of alternatives rejected before giving up
+     */
+    public static MatchOutcome mismatch(int retries) {
+        return retries == 0 ? MISMATCH : new MatchOutcome(false, Collections.emptyMap(), retries, 0);
+    }
+
+    /**
+     * @param cacheHits number of sub-comparisons answered from earlier results
+     * @return this outcome, reporting {@code cacheHits}
+     */
+    public MatchOutcome withCacheHits(int cacheHits) {
+        return cacheHits == this.cacheHits ? this : new MatchOutcome(matched, properties, retries, cacheHits);
+    }
+
+    public boolean matched() {
+        return matched;
+    }
+
+    /**
+     * @return captured placeholder values; empty on mismatch
+     */
+    public Map<String, Object> properties() {
+        return properties;
+    }
+
+    /**
+     * @return number of alternatives (e.g. field-name bindings) tried and rejected on the way
+     * to this outcome
+     */
+    public int retries() {
+        return retries;
+    }
+
+    /**
+     * @return number of sub-comparisons (e.g. of same-named XML siblings) answered from the
+     * result of an identical earlier one instead of being compared again
+     */
+    public int cacheHits() {
+        return cacheHits;
+    }
+}
@@ -7,6 +7,7 @@ import io.jtest.utils.matcher.http.PlainHttpResponse;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Asserts that an actual value matches an expected one — as JSON, XML, plain string, or
@@ -41,9 +42,20 @@ public class ObjectMatcher {
         return new FlowMatcher().match(message, expected, actual, new HashSet<>(Arrays.asList(matchConditions)));
     }
 
+    /**
+     * Same as {@link #match(String, Object, Object, MatchCondition...)}, with {@code regexBudget} applied
+     * to this call instead of the {@link RegexBudget#current() current} budget.
+     */
+    public static Map<String, Object> match(String message, Object expected, Object actual, RegexBudget regexBudget,
+                                            MatchCondition... matchConditions) {
+        return withRegexBudget(regexBudget, () -> match(message, expected, actual, matchConditions));
+    }
+
     /**
      * Matches both sides as JSON. Either side can be a JSON string, {@code JsonNode},
-     * {@code Map}, {@code List}, or POJO.
+     * {@code Map}, {@code List}, or POJO, or JSON text given as {@code byte[]},
+     * {@code ByteBuffer}, {@code InputStream}, {@code Path} or {@code Reader}. Bytes are
+     * decoded as UTF-8, UTF-16 or UTF-32, as detected from their start.
      *
      * <pre>{@code
      *   ObjectMatcher.matchJson(null, "{\"id\":\"~[id]\"}", "{\"id\":\"abc\"}");
@@ -62,8 +74,89 @@ public class ObjectMatcher {
     }
 
     /**
-     * Matches both sides as XML. Either side can be an XML string or a {@code Node}.
-     * Whitespace differences in element content are ignored.
+     * Same as {@link #matchJson(String, Object, Object, MatchCondition...)}, with {@code regexBudget} applied
+     * to this call instead of the {@link RegexBudget#current() current} budget.
+     */
+    public static Map<String, Object> matchJson(String message, Object expected, Object actual, RegexBudget regexBudget,
+                                                MatchCondition... matchConditions) {
+        return withRegexBudget(regexBudget, () -> matchJson(message, expected, actual, matchConditions));
+    }
+
+    /**
+     * Matches {@code expected} only against the value at a JSON Pointer in {@code actual}, with
+     * the same rules as {@link #matchJson(String, Object, Object, MatchCondition...)}. The rest
+     * of {@code actual} is not compared. If {@code actual} is bytes ({@code byte[]} or
+     * {@code ByteBuffer}), a {@code Path}, an {@code InputStream} or a {@code Reader}, the rest is
+     * not materialized either, and it is read no further than the value.
+     *
+     * <pre>{@code
+     *   ObjectMatcher.matchJsonAt(null, "{\"id\":\"~[id]\"}", actual, "/data/items/3");
+     * }</pre>
+     *
+     * @param pointer JSON Pointer of the value to match; {@code ""} for the whole JSON
+     * @return placeholders captured from the value
+     * @throws AssertionError           on mismatch, or if {@code actual} has no value at {@code pointer}
+     * @throws IllegalArgumentException if {@code pointer} is not a valid JSON Pointer
+     * @throws RuntimeException         if either side cannot be parsed as JSON
+     */
+    public static Map<String, Object> matchJsonAt(String message, Object expected, Object actual, String pointer,
+                                                  MatchCondition... matchConditions) {
+        return matchJsonAt(message, Map.of(pointer, expected), actual, matchConditions);
+    }
+
+    /**
+     * Same as {@link #matchJsonAt(String, Object, Object, String, MatchCondition...)} for several
+     * values at once, each matched against its own expected JSON. An {@code actual} given as
+     * bytes, a {@code Path}, an {@code InputStream} or a {@code Reader} is read once, no further
+     * than the last of the values.
+     *
+     * @param expectedByPointer expected JSON by JSON Pointer
+     * @return placeholders captured from all values
+     */
+    public static Map<String, Object> matchJsonAt(String message, Map<String, ?> expectedByPointer, Object actual,
+                                                  MatchCondition... matchConditions) {
+        try {
+            return JsonMatcher.matchAt(message, expectedByPointer, actual, new HashSet<>(Arrays.asList(matchConditions)));
+        } catch (InvalidTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Tells whether both sides match as JSON, with the same rules as
+     * {@link #matchJson(String, Object, Object, MatchCondition...)}. Decided by the compiled
+     * JSON template alone, without building a diff or a failure message, which makes it suited
+     * to polling and retry loops: call {@code matchJson} once afterwards if the differences need
+     * to be reported.
+     *
+     * <pre>{@code
+     *   ObjectMatcher.jsonMatches("{\"status\":\"DONE\"}", "{\"status\":\"RUNNING\"}"); // false
+     * }</pre>
+     *
+     * @throws RuntimeException if either side cannot be parsed as JSON
+     */
+    public static boolean jsonMatches(Object expected, Object actual, MatchCondition... matchConditions) {
+        try {
+            return new JsonMatcher(null, expected, actual, new HashSet<>(Arrays.asList(matchConditions))).matches();
+        } catch (InvalidTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Same as {@link #jsonMatches(Object, Object, MatchCondition...)}, with {@code regexBudget} applied
+     * to this call instead of the {@link RegexBudget#current() current} budget.
+     */
+    public static boolean jsonMatches(Object expected, Object actual, RegexBudget regexBudget, MatchCondition... matchConditions) {
+        return withRegexBudget(regexBudget, () -> jsonMatches(expected, actual, matchConditions));
+    }
+
+    /**
+     * Matches both sides as XML. Either side can be an XML string or a {@code Node}, or XML
+     * text given as {@code byte[]}, {@code ByteBuffer}, {@code InputStream}, {@code Path} or
+     * {@code Reader}. Bytes are decoded as their byte order mark or XML declaration says.
+     * Whitespace differences in element content are ignored. See
+     * {@link #matchXmlStream(String, Object, Object, MatchCondition...)} for large actual XMLs.
      *
      * <pre>{@code
      *   ObjectMatcher.matchXml(null, "<a id=\"~[id]\"/>", "<a id=\"42\"/>");
@@ -81,6 +174,54 @@ public class ObjectMatcher {
         }
     }
 
+    /**
+     * Same as {@link #matchXml(String, Object, Object, MatchCondition...)}, with {@code regexBudget} applied
+     * to this call instead of the {@link RegexBudget#current() current} budget.
+     */
+    public static Map<String, Object> matchXml(String message, Object expected, Object actual, RegexBudget regexBudget,
+                                               MatchCondition... matchConditions) {
+        return withRegexBudget(regexBudget, () -> matchXml(message, expected, actual, matchConditions));
+    }
+
+    /**
+     * Matches an actual XML given as text ({@code String}, {@code byte[]}, {@code ByteBuffer},
+     * {@code InputStream}, {@code Path} or {@code Reader}) while reading it, without building
+     * its DOM, in memory proportional to the expected XML and to the nesting depth of the
+     * actual one. A mismatch is reported without a diff.
+     *
+     * <p>The rules are those of {@link io.jtest.utils.matcher.comparators.xml.XmlTemplate},
+     * not exactly those of {@link #matchXml(String, Object, Object, MatchCondition...)}:
+     * same-named children are assigned wherever an assignment exists rather than first fit,
+     * adjacent text and CDATA sections are compared as one text, and texts, comments and
+     * processing instructions are paired in the order they come in, per kind. A verdict may therefore differ from
+     * {@code matchXml} on the same XMLs.
+     *
+     * <pre>{@code
+     *   ObjectMatcher.matchXmlStream(null, "<feed><status>~[status]</status></feed>", Files.newInputStream(feed));
+     * }</pre>
+     *
+     * @return placeholders captured from {@code actual}
+     * @throws AssertionError on mismatch
+     * @throws RuntimeException if either side cannot be parsed as XML, or {@code actual} is not XML text
+     */
+    public static Map<String, Object> matchXmlStream(String message, Object expected, Object actual,
+                                                     MatchCondition... matchConditions) {
+        try {
+            return new XmlStreamMatcher(message, expected, actual, new HashSet<>(Arrays.asList(matchConditions))).match();
+        } catch (InvalidTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Same as {@link #matchXmlStream(String, Object, Object, MatchCondition...)}, with {@code regexBudget} applied
+     * to this call instead of the {@link RegexBudget#current() current} budget.
+     */
+    public static Map<String, Object> matchXmlStream(String message, Object expected, Object actual, RegexBudget regexBudget,
+                                                     MatchCondition... matchConditions) {
+        return withRegexBudget(regexBudget, () -> matchXmlStream(message, expected, actual, matchConditions));
+    }
+
     /**
      * Matches both sides as strings. Non-strings are stringified first.
      * {@code expected} is treated as a Java regex by default; quote literals with
@@ -101,6 +242,78 @@ public class ObjectMatcher {
         }
     }
 
+    /**
+     * Same as {@link #matchString(String, Object, Object, MatchCondition...)}, with {@code regexBudget} applied
+     * to this call instead of the {@link RegexBudget#current() current} budget.
+     */
+    public static Map<String, Object> matchString(String message, Object expected, Object actual, RegexBudget regexBudget,
+                                                  MatchCondition... matchConditions) {
+        return withRegexBudget(regexBudget, () -> matchString(message, expected, actual, matchConditions));
+    }
+
+    /**
+     * Parses and analyses a JSON {@code expected} once, for matching against many actual
+     * values. Matching the returned template is equivalent to calling
+     * {@link #matchJson(String, Object, Object, MatchCondition...)} with the same expected value
+     * and conditions, and is safe from multiple threads.
+     *
+     * <pre>{@code
+     *   CompiledTemplate template = ObjectMatcher.compileJson("{\"id\":\"~[id]\"}");
+     *   template.match("{\"id\":\"abc\"}").get("id"); // "abc"
+     * }</pre>
+     *
+     * @throws RuntimeException if {@code expected} cannot be parsed as JSON
+     */
+    public static CompiledTemplate compileJson(Object expected, MatchCondition... matchConditions) {
+        try {
+            return new CompiledJsonTemplate(expected, new HashSet<>(Arrays.asList(matchConditions)));
+        } catch (InvalidTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Parses an XML {@code expected} once, for matching against many actual values. Matching
+     * the returned template is equivalent to calling
+     * {@link #matchXml(String, Object, Object, MatchCondition...)} with the same expected value
+     * and conditions, and is safe from multiple threads.
+     *
+     * @throws RuntimeException if {@code expected} cannot be parsed as XML
+     */
+    public static CompiledTemplate compileXml(Object expected, MatchCondition... matchConditions) {
+        try {
+            return new CompiledXmlTemplate(expected, new HashSet<>(Arrays.asList(matchConditions)));
+        } catch (InvalidTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Parses and compiles an XML {@code expected} once, for matching against many actual XMLs
+     * given as text. Matching the returned template is equivalent to calling
+     * {@link #matchXmlStream(String, Object, Object, MatchCondition...)} with the same expected
+     * value and conditions, and is safe from multiple threads.
+     *
+     * @throws RuntimeException if {@code expected} cannot be parsed as XML
+     */
+    public static CompiledTemplate compileXmlStream(Object expected, MatchCondition... matchConditions) {
+        try {
+            return new CompiledXmlStreamTemplate(expected, new HashSet<>(Arrays.asList(matchConditions)));
+        } catch (InvalidTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Analyses a string {@code expected} once, for matching against many actual values.
+     * Matching the returned template is equivalent to calling
+     * {@link #matchString(String, Object, Object, MatchCondition...)} with the same expected
+     * value and conditions, and is safe from multiple threads.
+     */
+    public static CompiledTemplate compileString(Object expected, MatchCondition... matchConditions) {
+        return new CompiledStringTemplate(expected, new HashSet<>(Arrays.asList(matchConditions)));
+    }
+
     /**
      * Matches two HTTP responses by status, reason, headers, and body. Only the
      * components set on {@code expected} are asserted on — leave a component {@code null}
@@ -127,4 +340,23 @@ public class ObjectMatcher {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Same as {@link #matchHttpResponse(String, PlainHttpResponse, PlainHttpResponse, MatchCondition...)}, with {@code regexBudget} applied
+     * to this call instead of the {@link RegexBudget#current() current} budget.
+     */
+    public static Map<String, Object> matchHttpResponse(String message, PlainHttpResponse expected, PlainHttpResponse actual,
+                                                        RegexBudget regexBudget, MatchCondition... matchConditions) {
+        return withRegexBudget(regexBudget, () -> matchHttpResponse(message, expected, actual, matchConditions));
+    }
+
+    /**
+     * Runs {@code match} under {@code regexBudget}. Fork/join tasks of the match run under the
+     * same budget, see {@link RegexBudget#scoped(RegexBudget)}.
+     */
+    private static <T> T withRegexBudget(RegexBudget regexBudget, Supplier<T> match) {
+        try (RegexBudget.Scope ignored = RegexBudget.scoped(regexBudget)) {
+            return match.get();
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.common.LruCache;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Process-wide cache of the {@link Pattern}s compiled by {@link StringMatcher} from expected
+ * values. Entries are keyed by the expected string, the way it is compiled (as a regex, or as a
+ * template whose placeholders become capture groups), the regex flags and whether
+ * {@link io.jtest.utils.matcher.condition.MatchCondition#REGEX_DISABLED} was active, so the
+ * same expected template is compiled only once no matter how many JSON leaves, XML nodes or
+ * strings it is matched against.
+ *
+ * <p>The cache is bounded and evicts the least recently used pattern. Size it with
+ * {@link #setMaxSize(int)} ({@code 0} disables caching) and inspect its effectiveness with
+ * {@link #stats()}.
+ */
+public final class PatternCache {
+
+    /** Number of compiled patterns kept by default. */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final LruCache<Key, Object> CACHE = new LruCache<>(DEFAULT_MAX_SIZE);
+
+    private PatternCache() {
+
+    }
+
+    /**
+     * Changes the maximum number of cached patterns. {@code 0} disables the cache.
+     *
+     * @throws IllegalArgumentException if {@code maxSize} is negative
+     */
+    public static void setMaxSize(int maxSize) {
+        CACHE.setMaxSize(maxSize);
+    }
+
+    public static int getMaxSize() {
+        return CACHE.getMaxSize();
+    }
+
+    /**
+     * @return hit / miss / eviction counters and the current size of the cache
+     */
+    public static LruCache.Stats stats() {
+        return CACHE.stats();
+    }
+
+    /**
+     * Drops every cached pattern.
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /**
+     * Returns the cached pattern for the given key, compiling it on a miss. Syntax errors are
+     * cached as well, so an invalid expected regex is not recompiled on every match.
+     *
+     * @throws PatternSyntaxException if {@code compiler} fails, now or on the miss that cached it
+     */
+    static Pattern get(String expected, ExpectedString.Kind kind, int flags, boolean regexDisabled, Supplier<Pattern> compiler) {
+        Object compiled = CACHE.get(new Key(expected, kind, flags, regexDisabled), k -> {
+            try {
+                return compiler.get();
+            } catch (PatternSyntaxException e) {
+                return e;
+            }
+        });
+        if (compiled instanceof PatternSyntaxException e) {
+            throw e;
+        }
+        return (Pattern) compiled;
+    }
+
+    private record Key(String expected, ExpectedString.Kind kind, int flags, boolean regexDisabled) {
+    }
+}
@@ -0,0 +1,192 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.exceptions.RegexBudgetExceededException;
+
+import java.time.Duration;
+
+/**
+ * Limits the work spent matching one actual value against one expected regex, so that a
+ * pathological expected pattern (e.g. nested quantifiers against a large body) fails fast
+ * with a {@link RegexBudgetExceededException} instead of hanging the test run.
+ *
+ * <p>Steps are counted as character reads performed by the regex engine on the actual value,
+ * which grow with backtracking. The time limit is checked every few thousand steps. Values
+ * matched without the regex engine (literals, literal placeholder templates) are not
+ * limited.
+ *
+ * <p>No budget is enforced by default. Set one for the whole process with
+ * {@link #setGlobal(RegexBudget)}, for one call with the {@code ObjectMatcher} methods taking
+ * a budget, or for the matches run by the current thread within a block:
+ * <pre>{@code
+ * ObjectMatcher.matchJson(null, expected, actual, RegexBudget.ofSteps(1_000_000));
+ *
+ * try (RegexBudget.Scope ignored = RegexBudget.scoped(RegexBudget.ofTimeout(Duration.ofSeconds(2)))) {
+ *     ObjectMatcher.matchJson(null, expected, actual);
+ * }
+ * }</pre>
+ */
+public final class RegexBudget {
+
+    /** Enforces no limit at all. */
+    public static final RegexBudget UNLIMITED = new RegexBudget(Long.MAX_VALUE, 0);
+
+    private static final int STEPS_BETWEEN_CLOCK_CHECKS = 4096;
+    private static final ThreadLocal<RegexBudget> SCOPED = new ThreadLocal<>();
+    private static volatile RegexBudget global = UNLIMITED;
+
+    private final long maxSteps;
+    private final long timeoutNanos;
+
+    private RegexBudget(long maxSteps, long timeoutNanos) {
+        this.maxSteps = maxSteps;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code maxSteps} is not positive
+     */
+    public static RegexBudget ofSteps(long maxSteps) {
+        return UNLIMITED.withMaxSteps(maxSteps);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code timeout} is not positive
+     */
+    public static RegexBudget ofTimeout(Duration timeout) {
+        return UNLIMITED.withTimeout(timeout);
+    }
+
+    /**
+     * @return a budget with this timeout and the given step limit
+     * @throws IllegalArgumentException if {@code maxSteps} is not positive
+     */
+    public RegexBudget withMaxSteps(long maxSteps) {
+        if (maxSteps <= 0) {
+            throw new IllegalArgumentException("Regex step budget must be positive: " + maxSteps);
+        }
+        return new RegexBudget(maxSteps, timeoutNanos);
+    }
+
+    /**
+     * @return a budget with this step limit and the given timeout
+     * @throws IllegalArgumentException if {@code timeout} is not positive
+     */
+    public RegexBudget withTimeout(Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Regex timeout must be positive: " + timeout);
+        }
+        return new RegexBudget(maxSteps, timeout.toNanos());
+    }
+
+    public boolean isUnlimited() {
+        return maxSteps == Long.MAX_VALUE && timeoutNanos == 0;
+    }
+
+    /**
+     * Sets the budget of every regex match that is not run within a {@link #scoped} block.
+     */
+    public static void setGlobal(RegexBudget budget) {
+        global = budget != null ? budget : UNLIMITED;
+    }
+
+    public static RegexBudget getGlobal() {
+        return global;
+    }
+
+    /**
+     * Applies {@code budget}, instead of the global one, to the matches run by the current
+     * thread until the returned scope is closed, including the parts of these matches run as
+     * fork/join tasks under {@link io.jtest.utils.matcher.condition.MatchCondition#JSON_PARALLEL}.
+     */
+    public static Scope scoped(RegexBudget budget) {
+        RegexBudget previous = SCOPED.get();
+        SCOPED.set(budget != null ? budget : UNLIMITED);
+        return () -> {
+            if (previous != null) {
+                SCOPED.set(previous);
+            } else {
+                SCOPED.remove();
+            }
+        };
+    }
+
+    /**
+     * @return the budget in effect for the current thread
+     */
+    public static RegexBudget current() {
+        RegexBudget scoped = SCOPED.get();
+        return scoped != null ? scoped : global;
+    }
+
+    /**
+     * @return {@code actual}, wrapped so that reading it past this budget throws a
+     * {@link RegexBudgetExceededException} naming {@code expected}
+     */
+    CharSequence guard(CharSequence actual, String expected) {
+        return isUnlimited() ? actual : new BudgetedCharSequence(actual, expected, this);
+    }
+
+    @Override
+    public String toString() {
+        if (isUnlimited()) {
+            return "unlimited regex budget";
+        }
+        StringBuilder sb = new StringBuilder("regex budget of");
+        if (maxSteps != Long.MAX_VALUE) {
+            sb.append(' ').append(maxSteps).append(" steps");
+        }
+        if (timeoutNanos != 0) {
+            sb.append(maxSteps != Long.MAX_VALUE ? " or " : " ").append(Duration.ofNanos(timeoutNanos));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Closes a {@link #scoped} budget, restoring the one in effect before it.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class BudgetedCharSequence implements CharSequence {
+
+        private final CharSequence delegate;
+        private final String expected;
+        private final RegexBudget budget;
+        private final long deadline;
+        private long steps;
+
+        private BudgetedCharSequence(CharSequence delegate, String expected, RegexBudget budget) {
+            this.delegate = delegate;
+            this.expected = expected;
+            this.budget = budget;
+            this.deadline = budget.timeoutNanos != 0 ? System.nanoTime() + budget.timeoutNanos : 0;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++steps > budget.maxSteps
+                    || (deadline != 0 && steps % STEPS_BETWEEN_CLOCK_CHECKS == 0 && System.nanoTime() - deadline > 0)) {
+                throw new RegexBudgetExceededException(expected, budget.toString());
+            }
+            return delegate.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return delegate.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return delegate.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package io.jtest.utils.matcher;
+
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.AnnotatedElement;
+import java.time.Duration;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Converts the values given to {@link StringMatcher} into the strings they are matched as.
+ *
+ * <p>Strings, numbers, booleans, characters, other {@link CharSequence}s, enums, {@link UUID}s,
+ * {@code java.time} values and scalar {@link JsonNode}s are converted directly. Any other type
+ * goes through a Jackson conversion, falling back to {@code toString()} if that fails. The
+ * converter picked for a class is resolved once and then reused.
+ *
+ * <p>Use {@link #register(Class, Function)} to convert a custom type (and its subtypes) without
+ * going through Jackson.
+ */
+public final class StringConverters {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Function<Object, String> TO_STRING = Object::toString;
+    private static final Function<Object, String> JACKSON = StringConverters::convertWithJackson;
+
+    private static final Map<Class<?>, Function<Object, String>> REGISTERED = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Function<Object, String>> RESOLVED = new ConcurrentHashMap<>();
+
+    static {
+        MAPPER.getFactory().setStreamReadConstraints(StreamReadConstraints.builder()
+                .maxNestingDepth(Integer.MAX_VALUE).maxNumberLength(Integer.MAX_VALUE).maxStringLength(Integer.MAX_VALUE).build());
+    }
+
+    private StringConverters() {
+
+    }
+
+    /**
+     * Converts values of {@code type}, and of its subtypes, with {@code converter}. Replaces any
+     * converter previously registered for {@code type}; built-in conversions are overridden too.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void register(Class<T> type, Function<? super T, String> converter) {
+        REGISTERED.put(type, value -> converter.apply((T) value));
+        RESOLVED.clear();
+    }
+
+    /**
+     * Removes the converter registered for {@code type}, if any.
+     */
+    public static void unregister(Class<?> type) {
+        if (REGISTERED.remove(type) != null) {
+            RESOLVED.clear();
+        }
+    }
+
+    static String toString(Object value) {
+        if (value instanceof String s) {
+            return s;
+        }
+        return RESOLVED.computeIfAbsent(value.getClass(), StringConverters::resolve).apply(value);
+    }
+
+    private static Function<Object, String> resolve(Class<?> type) {
+        Function<Object, String> registered = registeredFor(type);
+        if (registered != null) {
+            return registered;
+        }
+        if (Number.class.isAssignableFrom(type) || Boolean.class == type || Character.class == type
+                || CharSequence.class.isAssignableFrom(type) || UUID.class == type
+                || TemporalAccessor.class.isAssignableFrom(type) || Duration.class == type || Period.class == type
+                || ZoneId.class.isAssignableFrom(type)) {
+            return TO_STRING;
+        }
+        if (type.isEnum() || (type.getSuperclass() != null && type.getSuperclass().isEnum())) {
+            return hasJacksonAnnotations(type.isEnum() ? type : type.getSuperclass()) ? JACKSON : value -> ((Enum<?>) value).name();
+        }
+        if (JsonNode.class.isAssignableFrom(type)) {
+            return StringConverters::convertJsonNode;
+        }
+        return JACKSON;
+    }
+
+    /**
+     * @return the converter registered for {@code type} or its closest supertype, superclasses
+     * first, then interfaces breadth-first
+     */
+    private static Function<Object, String> registeredFor(Class<?> type) {
+        if (REGISTERED.isEmpty()) {
+            return null;
+        }
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            Function<Object, String> converter = REGISTERED.get(c);
+            if (converter != null) {
+                return converter;
+            }
+        }
+        Deque<Class<?>> interfaces = new ArrayDeque<>();
+        Set<Class<?>> seen = new HashSet<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            interfaces.addAll(List.of(c.getInterfaces()));
+        }
+        while (!interfaces.isEmpty()) {
+            Class<?> i = interfaces.poll();
+            if (!seen.add(i)) {
+                continue;
+            }
+            Function<Object, String> converter = REGISTERED.get(i);
+            if (converter != null) {
+                return converter;
+            }
+            interfaces.addAll(List.of(i.getInterfaces()));
+        }
+        return null;
+    }
+
+    private static String convertJsonNode(Object value) {
+        JsonNode node = (JsonNode) value;
+        if (node.isTextual() || node.isNumber() || node.isBoolean()) {
+            return node.asText();
+        }
+        return convertWithJackson(value);
+    }
+
+    private static String convertWithJackson(Object value) {
+        try {
+            return MAPPER.convertValue(value, String.class);
+        } catch (IllegalArgumentException ignored) {
+            return value.toString();
+        }
+    }
+
+    /**
+     * Jackson annotations ({@code @JsonValue}, {@code @JsonProperty}, ...) may change how an enum
+     * is serialized, in which case its name is not what Jackson would produce.
+     */
+    private static boolean hasJacksonAnnotations(Class<?> enumType) {
+        if (hasJacksonAnnotation(enumType)) {
+            return true;
+        }
+        for (AccessibleObject member : enumType.getDeclaredFields()) {
+            if (hasJacksonAnnotation(member)) {
+                return true;
+            }
+        }
+        for (AccessibleObject member : enumType.getDeclaredMethods()) {
+            if (hasJacksonAnnotation(member)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasJacksonAnnotation(AnnotatedElement element) {
+        for (Annotation annotation : element.getAnnotations()) {
+            if (annotation.annotationType().getPackageName().startsWith("com.fasterxml.jackson")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,18 +1,29 @@
 package io.jtest.utils.matcher;
 
+import io.jtest.utils.common.SiblingIndex;
 import io.jtest.utils.common.XmlUtils;
 import io.jtest.utils.exceptions.InvalidTypeException;
+import io.jtest.utils.exceptions.RegexBudgetExceededException;
 import io.jtest.utils.matcher.comparators.xml.CustomXmlDiffEvaluator;
 import io.jtest.utils.matcher.condition.MatchCondition;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
 import org.junit.jupiter.api.AssertionFailureBuilder;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
+import org.xmlunit.XMLUnitException;
+import org.xmlunit.builder.DiffBuilder;
+import org.xmlunit.diff.ComparisonControllers;
 import org.xmlunit.diff.DefaultNodeMatcher;
 import org.xmlunit.diff.DifferenceEvaluators;
 import org.xmlunit.diff.ElementSelector;
 import org.xmlunit.diff.XPathContext;
+import org.xmlunit.matchers.CompareMatcher;
 
 import javax.xml.transform.TransformerException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -24,10 +35,24 @@ import static org.xmlunit.matchers.CompareMatcher.isSimilarTo;
 public class XmlMatcher extends AbstractObjectMatcher<Node> {
 
     private final CustomXmlDiffEvaluator diffEvaluator;
+    private final SiblingMemo siblingMemo;
+    private final boolean whitespaceStripped;
 
     public XmlMatcher(String message, Object expected, Object actual, Set<MatchCondition> matchConditions) throws InvalidTypeException {
+        this(message, expected, actual, matchConditions, null);
+    }
+
+    /**
+     * Nested matcher comparing elements of the XMLs an enclosing matcher compares. Those are
+     * already stripped of whitespace, so they are compared as they are: stripping them again
+     * would copy them, and their comparisons could no longer be looked up in {@code siblingMemo}.
+     */
+    private XmlMatcher(String message, Object expected, Object actual, Set<MatchCondition> matchConditions,
+                       SiblingMemo siblingMemo) throws InvalidTypeException {
         super(message, expected, actual, matchConditions);
         this.diffEvaluator = new CustomXmlDiffEvaluator(this.matchConditions);
+        this.whitespaceStripped = siblingMemo != null;
+        this.siblingMemo = siblingMemo != null ? siblingMemo : new SiblingMemo();
     }
 
     @Override
@@ -53,14 +78,36 @@ public class XmlMatcher extends AbstractObjectMatcher<Node> {
 
     @Override
     Node convert(Object value) throws InvalidTypeException {
+        return toXmlNode(value);
+    }
+
+    @Override
+    Node convertExpected(Object value) throws InvalidTypeException {
+        return value instanceof String expected ? ExpectedCache.xml(expected) : toXmlNode(value);
+    }
+
+    static Node toXmlNode(Object value) throws InvalidTypeException {
         if (value instanceof String) {
             try {
                 return toNode(value.toString());
             } catch (Exception e) {
                 throw new InvalidTypeException("Invalid XML String format", e);
             }
+        } else if (value instanceof Reader xml) {
+            try {
+                return toNode(xml);
+            } catch (Exception e) {
+                throw new InvalidTypeException("Invalid XML format", e);
+            }
+        } else if (ByteInputs.isByteInput(value)) {
+            try (InputStream xml = ByteInputs.open(value)) {
+                return toNode(xml);
+            } catch (Exception e) {
+                throw new InvalidTypeException("Invalid XML format", e);
+            }
         } else if (!(value instanceof Node)) {
-            throw new InvalidTypeException("XML object must be of type String or org.w3c.dom.Node");
+            throw new InvalidTypeException("XML object must be of type String, org.w3c.dom.Node, byte[], ByteBuffer, "
+                    + "InputStream, Reader or Path");
         }
         return (Node) value;
     }
@@ -68,73 +115,187 @@ public class XmlMatcher extends AbstractObjectMatcher<Node> {
     @Override
     public Map<String, Object> match() {
         if (matchConditions.remove(MatchCondition.DO_NOT_MATCH)) {
-            try {
-                positiveMatch();
-            } catch (AssertionError e) {
+            if (!probe()) {
                 return new HashMap<>();
             }
-            AssertionFailureBuilder.assertionFailure().message(negativeMatchMessage).expected(expected).actual(actual)
+            AssertionFailureBuilder.assertionFailure().message(negativeFailureMessage()).expected(expected).actual(actual)
                     .includeValuesInMessage(false).buildAndThrow();
         }
-        return positiveMatch();
+        if (similar()) {
+            return diffEvaluator.getGeneratedProperties();
+        }
+        // compared again, this time collecting the differences to report
+        CompareMatcher compareMatcher = compareMatcher();
+        if (!matches(compareMatcher)) {
+            assertThat(failureMessage(), actual, new EvaluatedMismatch<>(compareMatcher));
+        }
+        return diffEvaluator.getGeneratedProperties();
+    }
+
+    /**
+     * Same as {@link #match()}, but reports a mismatch instead of throwing an {@link AssertionError}.
+     * The outcome's {@link MatchOutcome#cacheHits() cache hits} count the comparisons of
+     * same-named siblings answered from an earlier comparison of the same pair.
+     */
+    public MatchOutcome tryMatch() {
+        // like match(), drops DO_NOT_MATCH from the conditions shared with the nested matchers
+        boolean negate = matchConditions.remove(MatchCondition.DO_NOT_MATCH);
+        boolean matches = probe();
+        MatchOutcome outcome;
+        if (negate) {
+            outcome = matches ? MatchOutcome.mismatch() : MatchOutcome.matched(new HashMap<>());
+        } else {
+            outcome = matches ? MatchOutcome.matched(diffEvaluator.getGeneratedProperties()) : MatchOutcome.mismatch();
+        }
+        return outcome.withCacheHits(siblingMemo.hits);
+    }
+
+    /**
+     * Same as {@link #similar()}, but tells a comparison aborted by the sibling selector as a
+     * mismatch.
+     */
+    private boolean probe() {
+        try {
+            return similar();
+        } catch (AssertionError e) {
+            // the sibling selector aborts the whole comparison once an element has no match left
+            return false;
+        }
     }
 
-    private Map<String, Object> positiveMatch() {
-        assertThat(message, actual, isSimilarTo(expected).ignoreWhitespace()
+    /**
+     * Compares the XMLs as {@link #compareMatcher()} does, but stops at the first difference,
+     * collecting none: for the comparisons whose outcome is all that matters, which are most of
+     * them (sibling selection, negative matches, and matches that succeed).
+     */
+    private boolean similar() {
+        DiffBuilder diffBuilder = whitespaceStripped ? DiffBuilder.compare(expected) : DiffBuilder.compare(expected).ignoreWhitespace();
+        try {
+            return !diffBuilder.withTest(actual)
+                    .withNodeMatcher(new DefaultNodeMatcher(new ByNameAndSiblingOfSameNameAndTypeSelector()))
+                    .withDifferenceEvaluator(diffEvaluator)
+                    .withComparisonController(ComparisonControllers.StopWhenDifferent)
+                    .checkForSimilar().build().hasDifferences();
+        } catch (XMLUnitException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private CompareMatcher compareMatcher() {
+        CompareMatcher compareMatcher = whitespaceStripped ? isSimilarTo(expected) : isSimilarTo(expected).ignoreWhitespace();
+        return compareMatcher
                 .withNodeMatcher(new DefaultNodeMatcher(new ByNameAndSiblingOfSameNameAndTypeSelector()))
                 .withDifferenceEvaluator(
-                        DifferenceEvaluators.chain(diffEvaluator)));
-        return diffEvaluator.getGeneratedProperties();
+                        DifferenceEvaluators.chain(diffEvaluator));
+    }
+
+    private boolean matches(CompareMatcher compareMatcher) {
+        try {
+            return compareMatcher.matches(actual);
+        } catch (XMLUnitException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * XMLUnit wraps whatever the difference evaluator throws.
+     */
+    private static RuntimeException unwrap(XMLUnitException e) {
+        return e.getCause() instanceof RegexBudgetExceededException budgetExceeded ? budgetExceeded : e;
     }
 
     private class ByNameAndSiblingOfSameNameAndTypeSelector implements ElementSelector {
+        // the conditions the nested matchers run with, once DO_NOT_MATCH is dropped
+        private final Set<MatchCondition> conditions = Set.copyOf(matchConditions);
+        // same-named siblings of the test elements, indexed once per parent
+        private Node indexedParent;
+        private SiblingIndex siblings;
+
         @Override
         public boolean canBeCompared(Element controlElement, Element testElement) {
             if (controlElement == null || testElement == null || !controlElement.getNodeName().equals(testElement.getNodeName())) {
                 return false;
             }
-            if (hasNextSiblingWithSameNameAndType(testElement)) {
-                try {
-                    new XmlMatcher(message, controlElement, testElement, matchConditions).match();
-                    return true;
-                } catch (AssertionError | InvalidTypeException e) {
-                    return false;
-                }
+            SiblingIndex siblings = siblingsOf(testElement);
+            int index = siblings.indexOf(testElement);
+            if (siblings.position(index) < siblings.count(index)) {
+                return matches(controlElement, testElement);
             } else {
-                if (hasPreviousSiblingWithSameNameAndType(testElement)) {
-                    try {
-                        new XmlMatcher(message, controlElement, testElement, matchConditions).match();
-                        return true;
-                    } catch (AssertionError | InvalidTypeException e) {
-                        throw new AssertionError("Expected element " + new XPathContext(controlElement).getXPath() + " doesn't match any actual element");
-                    }
+                if (siblings.position(index) > 1 && !matches(controlElement, testElement)) {
+                    throw new AssertionError("Expected element " + new XPathContext(controlElement).getXPath() + " doesn't match any actual element");
                 }
             }
             return true;
         }
-    }
 
-    private static boolean hasNextSiblingWithSameNameAndType(Element element) {
-        Node sibling = element.getNextSibling();
-        while (sibling != null) {
-            if (element.getNodeType() == sibling.getNodeType() &&
-                    element.getNodeName().equals(sibling.getNodeName())) {
-                return true;
+        private SiblingIndex siblingsOf(Element element) {
+            Node parent = element.getParentNode();
+            if (siblings == null || parent != indexedParent) {
+                indexedParent = parent;
+                siblings = SiblingIndex.of(parent);
             }
-            sibling = sibling.getNextSibling();
+            return siblings;
         }
-        return false;
-    }
 
-    private static boolean hasPreviousSiblingWithSameNameAndType(Element element) {
-        Node sibling = element.getPreviousSibling();
-        while (sibling != null) {
-            if (element.getNodeType() == sibling.getNodeType() &&
-                    element.getNodeName().equals(sibling.getNodeName())) {
-                return true;
+        private boolean matches(Element controlElement, Element testElement) {
+            SiblingPair pair = new SiblingPair(controlElement, testElement, conditions);
+            Boolean memoized = siblingMemo.outcomes.get(pair);
+            if (memoized != null) {
+                siblingMemo.hits++;
+                return memoized;
+            }
+            boolean matches;
+            try {
+                matches = new XmlMatcher(userMessage, controlElement, testElement, matchConditions, siblingMemo).tryMatch().matched();
+            } catch (InvalidTypeException e) {
+                matches = false;
             }
-            sibling = sibling.getPreviousSibling();
+            siblingMemo.outcomes.put(pair, matches);
+            return matches;
+        }
+    }
+
+    /**
+     * Outcomes of the comparisons of same-named siblings made while matching one XML, shared by
+     * the nested matchers. A pair of elements compared to pick the sibling to match with is
+     * compared again whenever an enclosing pair is, once while choosing it and once while
+     * matching it; the memo answers each pair only once per match.
+     */
+    private static final class SiblingMemo {
+        private final Map<SiblingPair, Boolean> outcomes = new HashMap<>();
+        private int hits;
+    }
+
+    /**
+     * DOM nodes do not override {@code equals}, so pairs of them are told apart by identity.
+     */
+    private record SiblingPair(Element control, Element test, Set<MatchCondition> matchConditions) {
+    }
+
+    /**
+     * Reports the mismatch already found by {@code evaluated}, so that the assertion message
+     * can be built only once the comparison has failed, without comparing again.
+     */
+    private static final class EvaluatedMismatch<T> extends BaseMatcher<T> {
+        private final Matcher<T> evaluated;
+
+        private EvaluatedMismatch(Matcher<T> evaluated) {
+            this.evaluated = evaluated;
+        }
+
+        @Override
+        public boolean matches(Object actual) {
+            return false;
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            evaluated.describeTo(description);
+        }
+
+        @Override
+        public void describeMismatch(Object actual, Description description) {
+            evaluated.describeMismatch(actual, description);
         }
-        return false;
     }
 }
@@ -0,0 +1,139 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.common.XmlUtils;
+import io.jtest.utils.exceptions.InvalidTypeException;
+import io.jtest.utils.matcher.comparators.xml.XmlTemplate;
+import io.jtest.utils.matcher.condition.MatchCondition;
+import org.junit.jupiter.api.AssertionFailureBuilder;
+import org.w3c.dom.Node;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.TransformerException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches XMLs as {@link ObjectMatcher#matchXmlStream} does: the expected XML is compiled into
+ * an {@link XmlTemplate} and the actual XML, given as text, is matched while being read as StAX
+ * events, without building its DOM, by the rules of {@link XmlTemplate} rather than those of
+ * {@link XmlMatcher}. The actual XML can be read only once: a mismatch is reported without a
+ * diff.
+ */
+public class XmlStreamMatcher extends AbstractObjectMatcher<Object> {
+
+    private XmlTemplate template;
+
+    public XmlStreamMatcher(String message, Object expected, Object actual, Set<MatchCondition> matchConditions) throws InvalidTypeException {
+        super(message, expected, actual, matchConditions);
+    }
+
+    /**
+     * @param template {@code expected} compiled under the same match conditions
+     */
+    XmlStreamMatcher(String message, Node expected, Object actual, Set<MatchCondition> matchConditions,
+                     XmlTemplate template) throws InvalidTypeException {
+        this(message, expected, actual, matchConditions);
+        this.template = template;
+    }
+
+    @Override
+    protected String matchTypeSuffix() {
+        return "XMLs do not match" + System.lineSeparator() + System.lineSeparator() + ASSERTION_ERROR_HINT_MESSAGE +
+                System.lineSeparator() + System.lineSeparator();
+    }
+
+    @Override
+    protected String negativeMatchMessage() {
+        return System.lineSeparator() + "XMLs match!" + System.lineSeparator() + ASSERTION_ERROR_HINT_MESSAGE +
+                System.lineSeparator() + System.lineSeparator();
+    }
+
+    @Override
+    protected String toString(Object value) {
+        if (value instanceof Node node) {
+            try {
+                return XmlUtils.toString(node);
+            } catch (TransformerException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return value instanceof String ? (String) value : "<" + value.getClass().getSimpleName() + " read as XML>";
+    }
+
+    @Override
+    Object convert(Object value) throws InvalidTypeException {
+        return XmlMatcher.toXmlNode(value);
+    }
+
+    @Override
+    Object convertExpected(Object value) throws InvalidTypeException {
+        return value instanceof String expected ? ExpectedCache.xml(expected) : XmlMatcher.toXmlNode(value);
+    }
+
+    /**
+     * Keeps the actual XML as it is given, to be read only while matching.
+     */
+    @Override
+    Object convertActual(Object value) throws InvalidTypeException {
+        if (!(value instanceof String) && !(value instanceof Reader) && !ByteInputs.isByteInput(value)) {
+            throw new InvalidTypeException("Streamed XML must be of type String, byte[], ByteBuffer, InputStream, Reader or Path");
+        }
+        return value;
+    }
+
+    @Override
+    public Map<String, Object> match() {
+        if (matchConditions.remove(MatchCondition.DO_NOT_MATCH)) {
+            if (!positiveOutcome().matched()) {
+                return new HashMap<>();
+            }
+            AssertionFailureBuilder.assertionFailure().message(negativeFailureMessage()).includeValuesInMessage(false)
+                    .expected(toString(expected)).actual(toString(actual)).buildAndThrow();
+        }
+        MatchOutcome outcome = positiveOutcome();
+        if (!outcome.matched()) {
+            AssertionFailureBuilder.assertionFailure().message(failureMessage())
+                    .expected(toString(expected)).actual(toString(actual)).buildAndThrow();
+        }
+        return outcome.properties();
+    }
+
+    /**
+     * Same as {@link #match()}, but reports a mismatch instead of throwing an {@link AssertionError}.
+     */
+    public MatchOutcome tryMatch() {
+        boolean negate = matchConditions.remove(MatchCondition.DO_NOT_MATCH);
+        MatchOutcome outcome = positiveOutcome();
+        if (negate) {
+            return outcome.matched() ? MatchOutcome.mismatch() : MatchOutcome.matched(new HashMap<>());
+        }
+        return outcome;
+    }
+
+    /**
+     * @throws RuntimeException if the actual XML cannot be read or parsed up to the end of its
+     *                          root element
+     */
+    private MatchOutcome positiveOutcome() {
+        if (template == null) {
+            template = XmlTemplate.compile((Node) expected, matchConditions);
+        }
+        try (InputStream bytes = ByteInputs.isByteInput(actual) ? ByteInputs.open(actual) : null) {
+            XMLStreamReader reader = bytes != null ? XmlUtils.toStreamReader(bytes)
+                    : XmlUtils.toStreamReader(actual instanceof Reader xml ? xml : new StringReader((String) actual));
+            try {
+                return template.tryMatch(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.jtest.utils.exceptions.RegexBudgetExceededException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Expected JSON array. Without {@code JSON_STRICT_ORDER_ARRAY}, every expected element must be
+ * matched by a distinct actual element, in any order; with it, elements are compared by
+ * position. A {@code "!value"} element forbids any actual element matching {@code value}; a
+ * {@code "!.*"} element, like {@code JSON_NON_EXTENSIBLE_ARRAY}, forbids actual elements not
+ * claimed by any expected element.
+ *
+ * <p>Elements that {@link TemplateNode#bindsFields() bind field names} are matched after the
+ * others, backtracking to the previous one's next candidate when a choice of bindings leaves
+ * no match for the rest.
+ *
+ * <p>In any order, an expected element is tried only against the actual elements sharing its
+ * {@link ElementBuckets.Fingerprint}, in their order, rather than against every one of them.
+ * Should assigning each expected element to the first actual element it matches leave one of
+ * them without a match, the assignment is solved as a bipartite matching instead.
+ *
+ * <p>A {@link TemplateNode#isLiteral() literal} array, with only literal elements, is compared
+ * structurally first: element by element, which settles strict order and, in any order, the
+ * common case of actual elements in the expected order. Only when the elements are in another
+ * order are they assigned as above.
+ *
+ * <p>With {@code JSON_PARALLEL}, large arrays are matched as fork/join tasks: by ranges of
+ * positions in strict order; in any order, first-fit still runs sequentially, and only the
+ * candidates of the assignment it falls back to are computed by ranges of expected elements.
+ */
+final class ArrayTemplateNode implements TemplateNode {
+
+    private final List<TemplateNode> elements;
+    private final List<Integer> elementPositions;
+    private final List<TemplateNode> forbiddenElements;
+    private final List<Integer> forbiddenElementPositions;
+    private final boolean nonExtensible;
+    private final boolean strictOrder;
+    private final boolean parallel;
+    private final boolean bindsFields;
+    private final boolean capturesValues;
+    private final boolean literal;
+    private final ElementBuckets.Fingerprint[] fingerprints;
+    private final ElementBuckets.Fingerprint[] forbiddenFingerprints;
+
+    private ArrayTemplateNode(List<TemplateNode> elements, List<Integer> elementPositions,
+                              List<TemplateNode> forbiddenElements, List<Integer> forbiddenElementPositions,
+                              boolean nonExtensible, boolean strictOrder, boolean parallel) {
+        this.elements = elements;
+        this.elementPositions = elementPositions;
+        this.forbiddenElements = forbiddenElements;
+        this.forbiddenElementPositions = forbiddenElementPositions;
+        this.nonExtensible = nonExtensible;
+        this.strictOrder = strictOrder;
+        this.parallel = parallel;
+        this.bindsFields = elements.stream().anyMatch(TemplateNode::bindsFields);
+        this.capturesValues = elements.stream().anyMatch(TemplateNode::capturesValues);
+        this.literal = forbiddenElements.isEmpty() && elements.stream().allMatch(TemplateNode::isLiteral);
+        this.fingerprints = elements.stream().map(TemplateNode::fingerprint).toArray(ElementBuckets.Fingerprint[]::new);
+        this.forbiddenFingerprints = forbiddenElements.stream().map(TemplateNode::fingerprint)
+                .toArray(ElementBuckets.Fingerprint[]::new);
+    }
+
+    static ArrayTemplateNode compile(JsonNode expected, JsonTemplate.Options options) {
+        List<TemplateNode> elements = new ArrayList<>();
+        List<Integer> elementPositions = new ArrayList<>();
+        List<TemplateNode> forbiddenElements = new ArrayList<>();
+        List<Integer> forbiddenElementPositions = new ArrayList<>();
+        boolean nonExtensible = options.nonExtensibleArrays();
+        for (int position = 0; position < expected.size(); position++) {
+            JsonNode element = expected.get(position);
+            String text = element.textValue();
+            if (text != null && text.startsWith(JsonTemplate.DO_NOT_MATCH_PREFIX)) {
+                if (options.strictOrderArrays()) {
+                    throw new JsonTemplate.UnsupportedTemplateException();
+                }
+                if (text.equals(JsonTemplate.DO_NOT_MATCH_ANY)) {
+                    nonExtensible = true;
+                } else {
+                    forbiddenElements.add(JsonTemplate.compileNode(
+                            new TextNode(text.substring(JsonTemplate.DO_NOT_MATCH_PREFIX.length())), options));
+                    forbiddenElementPositions.add(position);
+                }
+            } else {
+                elements.add(JsonTemplate.compileNode(element, options));
+                elementPositions.add(position);
+            }
+        }
+        return new ArrayTemplateNode(elements, elementPositions, forbiddenElements, forbiddenElementPositions,
+                nonExtensible, options.strictOrderArrays(), options.parallel());
+    }
+
+    @Override
+    public boolean bindsFields() {
+        return bindsFields;
+    }
+
+    @Override
+    public boolean capturesValues() {
+        return capturesValues;
+    }
+
+    /**
+     * Narrows the mismatch of an array in strict order down to the first position whose
+     * element, if it does not bind field names, does not match.
+     */
+    @Override
+    public String mismatchPointer(JsonNode actual) {
+        if (!strictOrder || actual == null || !actual.isArray()) {
+            return "";
+        }
+        for (int i = 0; i < elements.size(); i++) {
+            if (!elements.get(i).bindsFields() && elements.get(i).match(actual.get(i), new Captures(null)) == null) {
+                return "/" + i + elements.get(i).mismatchPointer(actual.get(i));
+            }
+        }
+        return "";
+    }
+
+    @Override
+    public ElementBuckets.Fingerprint fingerprint() {
+        return ElementBuckets.Fingerprint.ARRAY;
+    }
+
+    /**
+     * Keeps every element of the actual array if the expected elements capture values, which may
+     * then depend on the elements they are assigned; otherwise only the elements
+     * {@link #retention() retained}.
+     */
+    @Override
+    public ReadShape readShape() {
+        List<ReadShape> elementShapes = new ArrayList<>();
+        elements.forEach(element -> elementShapes.add(element.readShape()));
+        forbiddenElements.forEach(element -> elementShapes.add(element.readShape()));
+        return ReadShape.array(elementShapes, capturesValues ? null : this::retention);
+    }
+
+    /**
+     * Selects, among the elements of an actual array read in order, those the outcome of the
+     * match depends on, for expected elements that capture no values. With {@code n} expected
+     * elements, these are the first {@code n + 1} elements of a non-extensible array, enough to
+     * tell its size apart from {@code n}, and the first {@code n} of an array in strict order.
+     * In any order, an expected element matching more than {@code n} actual elements can always
+     * be assigned one of its first {@code n}, whatever the others are assigned: the elements kept
+     * are those among the first {@code n} matches of some expected element, and the first
+     * element matching a forbidden one.
+     *
+     * @return a filter telling, for each element in turn, whether to keep it
+     */
+    private Predicate<JsonNode> retention() {
+        int n = elements.size();
+        if (nonExtensible || strictOrder) {
+            int limit = nonExtensible ? n + 1 : n;
+            int[] read = new int[1];
+            return element -> read[0]++ < limit;
+        }
+        int[] matches = new int[n];
+        boolean[] forbiddenFound = new boolean[1];
+        return element -> {
+            boolean keep = false;
+            for (int e = 0; e < n; e++) {
+                if (matches[e] < n && fingerprints[e].admits(element)
+                        && elements.get(e).match(element, new Captures(null)) != null) {
+                    matches[e]++;
+                    keep = true;
+                }
+            }
+            for (int f = 0; f < forbiddenElements.size() && !forbiddenFound[0]; f++) {
+                if (forbiddenFingerprints[f].admits(element)
+                        && forbiddenElements.get(f).match(element, new Captures(null)) != null) {
+                    forbiddenFound[0] = true;
+                    keep = true;
+                }
+            }
+            return keep;
+        };
+    }
+
+    @Override
+    public boolean isLiteral() {
+        return literal;
+    }
+
+    @Override
+    public boolean matchesLiteral(JsonNode actual) {
+        if (actual == null || !actual.isArray()) {
+            return false;
+        }
+        if (elements.size() > actual.size() || (nonExtensible && elements.size() != actual.size())) {
+            return false;
+        }
+        for (int i = 0; i < elements.size(); i++) {
+            if (!elements.get(i).matchesLiteral(actual.get(i))) {
+                return !strictOrder && matchInAnyOrder(actual, new Captures(null), new boolean[actual.size()],
+                        buckets(actual)) != null;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Captures match(JsonNode actual, Captures parent) {
+        if (literal) {
+            return matchesLiteral(actual) ? parent.child() : null;
+        }
+        if (bindsFields) {
+            throw new IllegalStateException("field-binding elements are matched through matchEach");
+        }
+        return matchElements(actual, parent, null, buckets(actual));
+    }
+
+    @Override
+    public boolean matchEach(JsonNode actual, Captures parent, JsonTemplate.Search search, JsonTemplate.Path path,
+                             Predicate<Captures> next) {
+        if (!bindsFields) {
+            return TemplateNode.super.matchEach(actual, parent, search, path, next);
+        }
+        boolean[] claimed = actual != null && actual.isArray() ? new boolean[actual.size()] : null;
+        ElementBuckets buckets = buckets(actual);
+        Captures captures;
+        try {
+            captures = matchElements(actual, parent, claimed, buckets);
+        } catch (RegexBudgetExceededException e) {
+            throw e.atPath(path.pointer() + e.getPath());
+        }
+        return captures != null && matchBindingElements(0, actual, captures, claimed, buckets, search, path, next);
+    }
+
+    /**
+     * Matches the elements that do not bind field names, marking the actual elements they claim.
+     *
+     * @param claimed {@code null} if no element binds field names; otherwise filled in for the
+     *                elements that remain to be matched
+     * @param buckets {@code null} to try every actual element
+     * @return the captures of these elements; {@code null} if one of them has no match, or if
+     * {@code actual} is not an array of a suitable size or has a forbidden element
+     */
+    private Captures matchElements(JsonNode actual, Captures parent, boolean[] claimed, ElementBuckets buckets) {
+        if (actual == null || !actual.isArray()) {
+            return null;
+        }
+        if (elements.size() > actual.size() || (nonExtensible && elements.size() != actual.size())) {
+            return null;
+        }
+        for (int f = 0; f < forbiddenElements.size(); f++) {
+            int[] candidates = buckets != null ? buckets.candidates(forbiddenFingerprints[f]) : null;
+            int count = candidates != null ? candidates.length : actual.size();
+            for (int c = 0; c < count; c++) {
+                JsonNode element = actual.get(candidates != null ? candidates[c] : c);
+                if (matchElement(forbiddenElements.get(f), forbiddenElementPositions.get(f), element, parent) != null) {
+                    return null;
+                }
+            }
+        }
+        return strictOrder ? matchInOrder(actual, parent) : matchInAnyOrder(actual, parent,
+                claimed != null ? claimed : new boolean[actual.size()], buckets);
+    }
+
+    private Captures matchInOrder(JsonNode actual, Captures parent) {
+        if (parallel && elements.size() >= ParallelMatch.MIN_ARRAY_SIZE) {
+            return matchInOrderInParallel(actual, parent);
+        }
+        Captures captures = parent.child();
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i).bindsFields()) {
+                continue;
+            }
+            Captures matched = matchElement(elements.get(i), elementPositions.get(i), actual.get(i), captures);
+            if (matched == null) {
+                return null;
+            }
+            captures.merge(matched);
+        }
+        return captures;
+    }
+
+    /**
+     * Assigns the elements that do not bind field names to distinct actual elements: first each
+     * one to the first unclaimed actual element it matches, which almost always succeeds; if
+     * that leaves one of them without a match, by a maximum matching of the compatible pairs,
+     * which finds an assignment whenever there is one.
+     */
+    private Captures matchInAnyOrder(JsonNode actual, Captures parent, boolean[] claimed, ElementBuckets buckets) {
+        Captures captures = parent.child();
+        if (matchFirstFit(actual, captures, claimed, buckets)) {
+            return captures;
+        }
+        Arrays.fill(claimed, false);
+        return matchByAssignment(actual, parent, claimed, buckets);
+    }
+
+    private boolean matchFirstFit(JsonNode actual, Captures captures, boolean[] claimed, ElementBuckets buckets) {
+        for (int e = 0; e < elements.size(); e++) {
+            if (elements.get(e).bindsFields()) {
+                continue;
+            }
+            int[] candidates = buckets != null ? buckets.candidates(fingerprints[e]) : null;
+            int count = candidates != null ? candidates.length : claimed.length;
+            boolean found = false;
+            for (int c = 0; c < count && !found; c++) {
+                int i = candidates != null ? candidates[c] : c;
+                if (claimed[i]) {
+                    continue;
+                }
+                Captures matched = matchElement(elements.get(e), elementPositions.get(e), actual.get(i), captures);
+                if (matched != null) {
+                    claimed[i] = true;
+                    captures.merge(matched);
+                    found = true;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches every element that does not bind field names against each of its candidates
+     * once, then assigns them by {@link BipartiteMatching}. Elements that bind no field names
+     * capture the same values whatever else is matched, so the pairs are compatible or not
+     * independently of each other. The captures of each element's first compatible candidate
+     * are kept, since that is most often the one assigned; other chosen pairs are matched again.
+     */
+    private Captures matchByAssignment(JsonNode actual, Captures parent, boolean[] claimed, ElementBuckets buckets) {
+        int[] assigned = IntStream.range(0, elements.size()).filter(e -> !elements.get(e).bindsFields()).toArray();
+        Captures captures = parent.child();
+        int[][] adjacency = new int[assigned.length][];
+        Captures[] firstMatches = new Captures[assigned.length];
+        int[][] candidates = new int[assigned.length][];
+        if (buckets != null) {
+            for (int a = 0; a < assigned.length; a++) {
+                candidates[a] = buckets.candidates(fingerprints[assigned[a]]);
+            }
+        }
+        if (parallel && assigned.length >= ParallelMatch.MIN_CHILDREN) {
+            List<Supplier<Boolean>> ranges = new ArrayList<>();
+            int step = rangeSize(assigned.length);
+            for (int from = 0; from < assigned.length; from += step) {
+                int start = from;
+                int end = Math.min(from + step, assigned.length);
+                ranges.add(() -> findCandidates(assigned, start, end, actual, captures, candidates, adjacency, firstMatches));
+            }
+            if (ParallelMatch.invokeAll(ranges).contains(false)) {
+                return null;
+            }
+        } else if (!findCandidates(assigned, 0, assigned.length, actual, captures, candidates, adjacency, firstMatches)) {
+            return null;
+        }
+        int[] assignment = BipartiteMatching.solve(adjacency, actual.size());
+        for (int a = 0; a < assigned.length; a++) {
+            if (assignment[a] < 0) {
+                return null;
+            }
+        }
+        for (int a = 0; a < assigned.length; a++) {
+            int e = assigned[a];
+            claimed[assignment[a]] = true;
+            captures.merge(assignment[a] == adjacency[a][0] ? firstMatches[a]
+                    : matchElement(elements.get(e), elementPositions.get(e), actual.get(assignment[a]), captures));
+        }
+        return captures;
+    }
+
+    /**
+     * Fills in the compatible actual elements of the expected elements {@code assigned[from..to)}.
+     *
+     * @param candidates for each expected element, the actual elements to try; {@code null} to
+     *                   try every actual element
+     *
+     * @return {@code false} as soon as one of them has none
+     */
+    private boolean findCandidates(int[] assigned, int from, int to, JsonNode actual, Captures captures,
+                                   int[][] candidates, int[][] adjacency, Captures[] firstMatches) {
+        for (int a = from; a < to; a++) {
+            int e = assigned[a];
+            int count = candidates[a] != null ? candidates[a].length : actual.size();
+            int[] compatible = new int[count];
+            int compatibleCount = 0;
+            for (int c = 0; c < count; c++) {
+                int i = candidates[a] != null ? candidates[a][c] : c;
+                Captures matched = matchElement(elements.get(e), elementPositions.get(e), actual.get(i), captures);
+                if (matched != null) {
+                    if (compatibleCount == 0) {
+                        firstMatches[a] = matched;
+                    }
+                    compatible[compatibleCount++] = i;
+                }
+            }
+            if (compatibleCount == 0) {
+                return false;
+            }
+            adjacency[a] = Arrays.copyOf(compatible, compatibleCount);
+        }
+        return true;
+    }
+
+    private Captures matchInOrderInParallel(JsonNode actual, Captures parent) {
+        Captures captures = parent.child();
+        List<Supplier<Captures>> ranges = new ArrayList<>();
+        int step = rangeSize(elements.size());
+        for (int from = 0; from < elements.size(); from += step) {
+            int start = from;
+            int end = Math.min(from + step, elements.size());
+            ranges.add(() -> {
+                Captures range = captures.child();
+                for (int i = start; i < end; i++) {
+                    if (elements.get(i).bindsFields()) {
+                        continue;
+                    }
+                    Captures matched = matchElement(elements.get(i), elementPositions.get(i), actual.get(i), range);
+                    if (matched == null) {
+                        return null;
+                    }
+                    range.merge(matched);
+                }
+                return range;
+            });
+        }
+        for (Captures range : ParallelMatch.invokeAll(ranges)) {
+            if (range == null) {
+                return null;
+            }
+            captures.merge(range);
+        }
+        return captures;
+    }
+
+    /**
+     * @return the number of consecutive elements matched by one fork/join task
+     */
+    private static int rangeSize(int size) {
+        return Math.max(1, size / (4 * ForkJoinPool.getCommonPoolParallelism()));
+    }
+
+    /**
+     * Matches the elements that bind field names from {@code index} on, then hands the captures
+     * over to {@code next}. Each candidate actual element, and each way it matches, is tried in
+     * turn until the rest of the match succeeds.
+     */
+    private boolean matchBindingElements(int index, JsonNode actual, Captures captures, boolean[] claimed,
+                                         ElementBuckets buckets, JsonTemplate.Search search, JsonTemplate.Path path,
+                                         Predicate<Captures> next) {
+        int e = index;
+        while (e < elements.size() && !elements.get(e).bindsFields()) {
+            e++;
+        }
+        if (e == elements.size()) {
+            return next.test(captures);
+        }
+        int element = e;
+        JsonTemplate.Path elementPath = path.child(String.valueOf(elementPositions.get(element)));
+        Predicate<Captures> matchRest = matched -> {
+            if (matchBindingElements(element + 1, actual, matched, claimed, buckets, search, path, next)) {
+                return true;
+            }
+            search.retry();
+            return false;
+        };
+        if (strictOrder) {
+            return elements.get(element).matchEach(actual.get(element), captures, search, elementPath, matchRest);
+        }
+        int[] candidates = buckets != null ? buckets.candidates(fingerprints[element]) : null;
+        int count = candidates != null ? candidates.length : claimed.length;
+        for (int c = 0; c < count; c++) {
+            int i = candidates != null ? candidates[c] : c;
+            if (claimed[i]) {
+                continue;
+            }
+            claimed[i] = true;
+            boolean matched = elements.get(element).matchEach(actual.get(i), captures, search, elementPath, matchRest);
+            claimed[i] = false;
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return buckets of the elements of {@code actual} if it is an array worth indexing for
+     * matching in any order, {@code null} otherwise
+     */
+    private ElementBuckets buckets(JsonNode actual) {
+        return !strictOrder && actual != null && actual.isArray() && actual.size() >= ElementBuckets.MIN_ARRAY_SIZE
+                ? new ElementBuckets(actual) : null;
+    }
+
+    private static Captures matchElement(TemplateNode element, int position, JsonNode actual, Captures parent) {
+        try {
+            return element.match(actual, parent);
+        } catch (RegexBudgetExceededException e) {
+            throw e.atPath(JsonTemplate.pointerTo(String.valueOf(position), e.getPath()));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import java.util.Arrays;
+
+/**
+ * Maximum matching in a bipartite graph, by the Hopcroft–Karp algorithm: assigns expected
+ * array elements (left) to distinct compatible actual elements (right) in
+ * {@code O(E·√V)} time. The result depends only on the order of the adjacency lists.
+ *
+ * <p>Augmenting paths are searched for iteratively, so arrays of any size can be matched
+ * without exhausting the stack.
+ */
+final class BipartiteMatching {
+
+    private static final int UNMATCHED = -1;
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final int[][] adjacency;
+    private final int[] leftMatch;
+    private final int[] rightMatch;
+    private final int[] distance;
+    private final int[] nextEdge;
+    private final int[] stack;
+
+    private BipartiteMatching(int[][] adjacency, int rightSize) {
+        this.adjacency = adjacency;
+        this.leftMatch = new int[adjacency.length];
+        this.rightMatch = new int[rightSize];
+        this.distance = new int[adjacency.length];
+        this.nextEdge = new int[adjacency.length];
+        this.stack = new int[adjacency.length];
+        Arrays.fill(leftMatch, UNMATCHED);
+        Arrays.fill(rightMatch, UNMATCHED);
+    }
+
+    /**
+     * @param adjacency for each left vertex, the right vertices it can be matched with
+     * @param rightSize number of right vertices
+     * @return for each left vertex, the right vertex it is matched with, or {@code -1}
+     */
+    static int[] solve(int[][] adjacency, int rightSize) {
+        BipartiteMatching matching = new BipartiteMatching(adjacency, rightSize);
+        matching.matchFirstFree();
+        while (matching.layer()) {
+            Arrays.fill(matching.nextEdge, 0);
+            for (int left = 0; left < adjacency.length; left++) {
+                if (matching.leftMatch[left] == UNMATCHED) {
+                    matching.augment(left);
+                }
+            }
+        }
+        return matching.leftMatch;
+    }
+
+    /**
+     * Matches each left vertex with its first free right vertex, which leaves few augmenting
+     * paths to look for.
+     */
+    private void matchFirstFree() {
+        for (int left = 0; left < adjacency.length; left++) {
+            for (int right : adjacency[left]) {
+                if (rightMatch[right] == UNMATCHED) {
+                    leftMatch[left] = right;
+                    rightMatch[right] = left;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the distance of every left vertex from the unmatched ones, along alternating
+     * paths.
+     *
+     * @return {@code true} if some unmatched right vertex is reachable
+     */
+    private boolean layer() {
+        int[] queue = new int[adjacency.length];
+        int head = 0;
+        int tail = 0;
+        for (int left = 0; left < adjacency.length; left++) {
+            if (leftMatch[left] == UNMATCHED) {
+                distance[left] = 0;
+                queue[tail++] = left;
+            } else {
+                distance[left] = UNREACHED;
+            }
+        }
+        boolean found = false;
+        while (head < tail) {
+            int left = queue[head++];
+            for (int right : adjacency[left]) {
+                int next = rightMatch[right];
+                if (next == UNMATCHED) {
+                    found = true;
+                } else if (distance[next] == UNREACHED) {
+                    distance[next] = distance[left] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Looks for an augmenting path from the unmatched {@code root} along the layers and, if
+     * there is one, flips the matching along it. Vertices found to lead nowhere are taken out
+     * of the layers for the rest of the phase.
+     */
+    private void augment(int root) {
+        int depth = 0;
+        stack[0] = root;
+        while (depth >= 0) {
+            int left = stack[depth];
+            if (nextEdge[left] == adjacency[left].length) {
+                distance[left] = UNREACHED;
+                depth--;
+                continue;
+            }
+            int right = adjacency[left][nextEdge[left]];
+            int next = rightMatch[right];
+            if (next == UNMATCHED) {
+                for (int d = depth; d >= 0; d--) {
+                    int l = stack[d];
+                    int r = adjacency[l][nextEdge[l]];
+                    leftMatch[l] = r;
+                    rightMatch[r] = l;
+                }
+                return;
+            }
+            if (distance[next] != UNREACHED && distance[next] == distance[left] + 1) {
+                stack[++depth] = next;
+            } else {
+                nextEdge[left]++;
+            }
+        }
+    }
+}
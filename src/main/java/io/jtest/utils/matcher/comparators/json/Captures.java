@@ -0,0 +1,89 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Placeholder values captured while matching one subtree of a {@link JsonTemplate}.
+ *
+ * <p>Every candidate tried while matching gets its own child instance, so a failed candidate
+ * is discarded simply by dropping it; a successful one is either {@link #merge(Captures) merged}
+ * into its parent or, while backtracking over field-name bindings, extended by further children.
+ * The captured values are those of the whole chain up to the root. Values captured from field
+ * names are also recorded as bindings: a field-name placeholder that is already bound on the
+ * chain must capture the same value again.
+ */
+final class Captures {
+
+    private final Captures parent;
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+    private final Map<String, Object> fieldBindings = new HashMap<>();
+
+    Captures(Captures parent) {
+        this.parent = parent;
+    }
+
+    Captures child() {
+        return new Captures(this);
+    }
+
+    /**
+     * Records values captured from a field name.
+     *
+     * @return {@code false}, recording nothing, if any of them contradicts an existing binding
+     */
+    boolean bindFields(Map<String, Object> captured) {
+        for (Map.Entry<String, Object> entry : captured.entrySet()) {
+            for (Captures c = this; c != null; c = c.parent) {
+                if (c.fieldBindings.containsKey(entry.getKey())) {
+                    Object bound = c.fieldBindings.get(entry.getKey());
+                    if (bound == null ? entry.getValue() != null : !bound.equals(entry.getValue())) {
+                        return false;
+                    }
+                    break;
+                }
+            }
+        }
+        fieldBindings.putAll(captured);
+        properties.putAll(captured);
+        return true;
+    }
+
+    /**
+     * Records values captured from a JSON value, escaped the same way
+     * {@link CustomJsonComparator#compareValues(Object, Object)} escapes them.
+     */
+    void addValues(Map<String, Object> captured) {
+        captured.forEach((k, v) -> properties.put(k, v != null ? CustomJsonComparator.escape(v.toString()) : null));
+    }
+
+    /**
+     * Records values captured by a {@link CustomJsonComparator}, which are already escaped.
+     */
+    void addEscapedValues(Map<String, Object> captured) {
+        properties.putAll(captured);
+    }
+
+    void merge(Captures child) {
+        properties.putAll(child.properties);
+        fieldBindings.putAll(child.fieldBindings);
+    }
+
+    /**
+     * @return the values captured on the chain from the root down to this instance
+     */
+    Map<String, Object> properties() {
+        Deque<Captures> chain = new ArrayDeque<>();
+        for (Captures c = this; c != null; c = c.parent) {
+            chain.push(c);
+        }
+        Map<String, Object> all = new HashMap<>();
+        for (Captures c : chain) {
+            all.putAll(c.properties);
+        }
+        return all;
+    }
+}
@@ -1,11 +1,16 @@
 package io.jtest.utils.matcher.comparators.json;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.json.compare.CompareMode;
+import io.json.compare.JSONCompare;
 import io.json.compare.JsonComparator;
 import io.jtest.utils.exceptions.InvalidTypeException;
+import io.jtest.utils.matcher.MatchOutcome;
 import io.jtest.utils.matcher.StringMatcher;
 import io.jtest.utils.matcher.condition.MatchCondition;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,30 +27,95 @@ public class CustomJsonComparator implements JsonComparator {
         this.matchConditions = matchConditions;
     }
 
-    public boolean compareValues(Object expected, Object actual) {
+    /**
+     * Asserts with {@code JSONCompare}, under the match conditions of this comparator, that
+     * {@code actual} matches {@code expected}. If field-name placeholders were bound, the
+     * comparison is retried with other bindings, at most {@link JsonTemplate#DEFAULT_MAX_RETRIES}
+     * times.
+     *
+     * @return the captured placeholder values
+     * @throws AssertionError explaining the differences, if the JSONs do not match
+     */
+    public Map<String, Object> assertMatches(JsonNode expected, JsonNode actual, String message) {
         try {
-            this.valueProperties.putAll(escapePropertyValues(new StringMatcher(null, expected, actual, matchConditions).match()));
-            return true;
-        } catch (AssertionError | InvalidTypeException e) {
-            return false;
+            assertJsonsMatch(expected, actual, message);
+        } catch (AssertionError firstFailure) {
+            if (fieldProperties.isEmpty()) {
+                throw firstFailure;
+            }
+            retryUntilFieldPropertiesDepleted(expected, actual, message);
         }
+        return valueProperties;
     }
 
-    public boolean compareFields(String expected, String actual) {
-        try {
-            Map<String, Object> properties = new StringMatcher(null, expected, actual, matchConditions).match();
-            if (!properties.isEmpty()) {
-                if (areFieldPropertiesDepleted(properties)
-                        || generatedFieldPropertiesContainAllKeysWithDifferentValues(properties)) {
-                    return false;
+    private void retryUntilFieldPropertiesDepleted(JsonNode expected, JsonNode actual, String message) {
+        for (int retries = 1; ; retries++) {
+            depletedFieldPropertyList.add(new HashMap<>(fieldProperties));
+            fieldProperties.clear();
+            try {
+                assertJsonsMatch(expected, actual, message);
+                return;
+            } catch (AssertionError retryFailure) {
+                if (fieldProperties.isEmpty() || retries >= JsonTemplate.DEFAULT_MAX_RETRIES) {
+                    throw retryFailure;
                 }
-                this.valueProperties.putAll(properties);
-                this.fieldProperties.putAll(properties);
             }
-            return true;
-        } catch (AssertionError | InvalidTypeException e) {
+        }
+    }
+
+    private void assertJsonsMatch(JsonNode expected, JsonNode actual, String message) {
+        JSONCompare.compare(expected, actual)
+                .comparator(this)
+                .modes(compareModes())
+                .message(message)
+                .assertMatches();
+    }
+
+    private Set<CompareMode> compareModes() {
+        Set<CompareMode> modes = EnumSet.noneOf(CompareMode.class);
+        for (MatchCondition condition : matchConditions) {
+            switch (condition) {
+                case JSON_NON_EXTENSIBLE_OBJECT -> modes.add(CompareMode.JSON_OBJECT_NON_EXTENSIBLE);
+                case JSON_NON_EXTENSIBLE_ARRAY -> modes.add(CompareMode.JSON_ARRAY_NON_EXTENSIBLE);
+                case JSON_STRICT_ORDER_ARRAY -> modes.add(CompareMode.JSON_ARRAY_STRICT_ORDER);
+                default -> { /* unrelated condition, ignore */ }
+            }
+        }
+        return modes;
+    }
+
+    public boolean compareValues(Object expected, Object actual) {
+        MatchOutcome outcome = match(expected, actual);
+        if (!outcome.matched()) {
+            return false;
+        }
+        this.valueProperties.putAll(escapePropertyValues(outcome.properties()));
+        return true;
+    }
+
+    public boolean compareFields(String expected, String actual) {
+        MatchOutcome outcome = match(expected, actual);
+        if (!outcome.matched()) {
             return false;
         }
+        Map<String, Object> properties = outcome.properties();
+        if (!properties.isEmpty()) {
+            if (areFieldPropertiesDepleted(properties)
+                    || generatedFieldPropertiesContainAllKeysWithDifferentValues(properties)) {
+                return false;
+            }
+            this.valueProperties.putAll(properties);
+            this.fieldProperties.putAll(properties);
+        }
+        return true;
+    }
+
+    private MatchOutcome match(Object expected, Object actual) {
+        try {
+            return new StringMatcher(null, expected, actual, matchConditions).tryMatch();
+        } catch (InvalidTypeException e) {
+            return MatchOutcome.mismatch();
+        }
     }
 
     public boolean generatedFieldPropertiesContainAllKeysWithDifferentValues(Map<String, Object> target) {
@@ -86,7 +156,7 @@ public class CustomJsonComparator implements JsonComparator {
         return escapedValues;
     }
 
-    private static String escape(String raw) {
+    static String escape(String raw) {
         String escaped = raw;
         escaped = escaped.replace("\\", "\\\\");
         escaped = escaped.replace("\"", "\\\"");
@@ -0,0 +1,136 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Elements of an actual JSON array grouped by {@link Fingerprint}, so that an expected element
+ * is tried only against the actual elements that can match it instead of against all of them.
+ *
+ * <p>Groups are built lazily, by a single pass over the array per kind of fingerprint asked
+ * for, and list element indexes in ascending order: trying the candidates of a group in turn
+ * gives the same first match as trying every element in turn.
+ */
+final class ElementBuckets {
+
+    /** Arrays smaller than this are scanned directly; indexing them would not pay off. */
+    static final int MIN_ARRAY_SIZE = 16;
+
+    private static final int[] NONE = new int[0];
+
+    private final JsonNode array;
+    private Map<Fingerprint.Kind, int[]> byKind;
+    private Map<String, int[]> byValue;
+    private final Map<String, Map<String, int[]>> byFieldValue = new HashMap<>();
+
+    ElementBuckets(JsonNode array) {
+        this.array = array;
+    }
+
+    /**
+     * @return indexes, in ascending order, of the elements that can have {@code fingerprint}
+     */
+    int[] candidates(Fingerprint fingerprint) {
+        if (fingerprint.text() == null) {
+            if (byKind == null) {
+                byKind = indexByKind();
+            }
+            return byKind.getOrDefault(fingerprint.kind(), NONE);
+        }
+        if (fingerprint.field() == null) {
+            if (byValue == null) {
+                byValue = indexByValue(null);
+            }
+            return byValue.getOrDefault(fingerprint.text(), NONE);
+        }
+        return byFieldValue.computeIfAbsent(fingerprint.field(), this::indexByValue)
+                .getOrDefault(fingerprint.text(), NONE);
+    }
+
+    private Map<Fingerprint.Kind, int[]> indexByKind() {
+        Map<Fingerprint.Kind, List<Integer>> groups = new EnumMap<>(Fingerprint.Kind.class);
+        for (int i = 0; i < array.size(); i++) {
+            groups.computeIfAbsent(Fingerprint.Kind.of(array.get(i)), k -> new ArrayList<>()).add(i);
+        }
+        Map<Fingerprint.Kind, int[]> index = new EnumMap<>(Fingerprint.Kind.class);
+        groups.forEach((kind, indexes) -> index.put(kind, toArray(indexes)));
+        return index;
+    }
+
+    /**
+     * Groups the scalar elements, or the scalar values of the given field of the object
+     * elements, by their text.
+     */
+    private Map<String, int[]> indexByValue(String field) {
+        Map<String, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < array.size(); i++) {
+            JsonNode value = field == null ? array.get(i) : array.get(i).get(field);
+            if (value != null && value.isValueNode()) {
+                groups.computeIfAbsent(value.asText(), k -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> index = new HashMap<>();
+        groups.forEach((text, indexes) -> index.put(text, toArray(indexes)));
+        return index;
+    }
+
+    private static int[] toArray(List<Integer> indexes) {
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Necessary condition for an actual node to match an expected one: its kind and, where the
+     * expected node pins it down, the text of the node itself or of one of its fields.
+     *
+     * @param field name of the field whose value has {@code text}; {@code null} for the node itself
+     * @param text  text of the scalar; {@code null} if not pinned down
+     */
+    record Fingerprint(Kind kind, String field, String text) {
+
+        enum Kind {
+            OBJECT, ARRAY, SCALAR;
+
+            static Kind of(JsonNode node) {
+                return node.isObject() ? OBJECT : node.isArray() ? ARRAY : SCALAR;
+            }
+        }
+
+        static final Fingerprint OBJECT = new Fingerprint(Kind.OBJECT, null, null);
+        static final Fingerprint ARRAY = new Fingerprint(Kind.ARRAY, null, null);
+        static final Fingerprint SCALAR = new Fingerprint(Kind.SCALAR, null, null);
+
+        static Fingerprint scalar(String text) {
+            return new Fingerprint(Kind.SCALAR, null, text);
+        }
+
+        static Fingerprint field(String field, String text) {
+            return new Fingerprint(Kind.OBJECT, field, text);
+        }
+
+        /**
+         * @return {@code true} if {@code node} meets this condition
+         */
+        boolean admits(JsonNode node) {
+            if (Kind.of(node) != kind) {
+                return false;
+            }
+            if (text == null) {
+                return true;
+            }
+            JsonNode value = field == null ? node : node.get(field);
+            return value != null && value.isValueNode() && value.asText().equals(text);
+        }
+
+        /**
+         * @return {@code true} if this is a scalar with pinned down text
+         */
+        boolean isPinnedScalar() {
+            return kind == Kind.SCALAR && text != null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jtest.utils.matcher.condition.MatchCondition;
+
+import java.util.Set;
+
+/**
+ * Expected node that the template does not evaluate itself, because it is or holds one of the
+ * {@code JSONCompare} constructs whose rules the template does not replicate: an escaped
+ * keyword ({@code "\\.*"}, {@code "\\!.*"}) or a value that is not a JSON scalar, an object with
+ * JSON path field names ({@code "#($..path)"}) or escaped keywords as field names, or a strict
+ * order array with negated elements. Only this node is compared with {@code JSONCompare}, by its
+ * rules; the rest of the template, siblings and enclosing nodes included, is matched as usual.
+ *
+ * <p>The node is matched as a whole, in a single way: the field names bound inside it are
+ * checked against, and bound for, the rest of the match, but other bindings are only retried
+ * within the node, never from outside it.
+ */
+final class JsonCompareNode implements TemplateNode {
+
+    private final JsonNode expected;
+    private final Set<MatchCondition> matchConditions;
+
+    JsonCompareNode(JsonNode expected, JsonTemplate.Options options) {
+        this.expected = expected;
+        this.matchConditions = options.matchConditions();
+    }
+
+    @Override
+    public Captures match(JsonNode actual, Captures parent) {
+        if (actual == null) {
+            return null;
+        }
+        CustomJsonComparator comparator = new CustomJsonComparator(matchConditions);
+        try {
+            comparator.assertMatches(expected, actual, "");
+        } catch (AssertionError e) {
+            return null;
+        }
+        Captures captures = parent.child();
+        if (!captures.bindFields(comparator.getFieldProperties())) {
+            return null;
+        }
+        captures.addEscapedValues(comparator.getValueProperties());
+        return captures;
+    }
+
+    @Override
+    public boolean capturesValues() {
+        return true;
+    }
+
+    @Override
+    public boolean isLiteral() {
+        return false;
+    }
+
+    @Override
+    public boolean matchesLiteral(JsonNode actual) {
+        return match(actual, new Captures(null)) != null;
+    }
+
+    @Override
+    public ReadShape readShape() {
+        return ReadShape.ALL;
+    }
+
+    @Override
+    public ElementBuckets.Fingerprint fingerprint() {
+        return new ElementBuckets.Fingerprint(ElementBuckets.Fingerprint.Kind.of(expected), null, null);
+    }
+}
@@ -0,0 +1,104 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the regions of an actual JSON found at given JSON Pointers from a token stream,
+ * without materializing anything else. Objects and arrays on the way to a region are walked
+ * token by token, the others are skipped, and reading stops as soon as every region was read:
+ * the rest of the stream is not parsed. Each region is read with the {@link JsonTemplate} it
+ * is to be matched with, keeping only what the template can look at.
+ */
+public final class JsonRegions {
+
+    private final Step root = new Step();
+    private int remaining;
+
+    private JsonRegions(Map<String, JsonTemplate> templates) {
+        templates.forEach((pointer, template) -> {
+            Step step = root;
+            for (JsonPointer p = JsonPointer.compile(pointer); !p.matches(); p = p.tail()) {
+                step = step.next.computeIfAbsent(p.getMatchingProperty(), name -> new Step());
+            }
+            step.pointer = pointer;
+            step.template = template;
+        });
+        this.remaining = templates.size();
+    }
+
+    /**
+     * @param parser    positioned before, or on the first token of, the actual JSON
+     * @param templates template to read each region with, by JSON Pointer ({@code ""} for the
+     *                  whole JSON)
+     * @return the regions found, by JSON Pointer; pointers with no value in the actual JSON are
+     * left out
+     * @throws IOException              if the actual JSON cannot be read or parsed up to the last region
+     * @throws IllegalArgumentException if one of the keys is not a valid JSON Pointer
+     */
+    public static Map<String, JsonNode> read(JsonParser parser, Map<String, JsonTemplate> templates) throws IOException {
+        JsonRegions reader = new JsonRegions(templates);
+        Map<String, JsonNode> regions = new LinkedHashMap<>();
+        if (parser.currentToken() != null || parser.nextToken() != null) {
+            reader.read(parser, reader.root, regions);
+        }
+        return regions;
+    }
+
+    /**
+     * Reads the value starting at the current token of {@code parser}, reached by {@code step},
+     * leaving the parser on its last token unless every region was read.
+     */
+    private void read(JsonParser parser, Step step, Map<String, JsonNode> regions) throws IOException {
+        if (step.pointer != null) {
+            // a region containing other regions is read whole, for them to be taken out of it
+            JsonNode region = step.next.isEmpty() ? step.template.read(parser) : ReadShape.readAll(parser);
+            addRegions(step, region, regions);
+            return;
+        }
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (remaining > 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+                Step next = step.next.get(parser.currentName());
+                parser.nextToken();
+                readOrSkip(parser, next, regions);
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            for (int index = 0; remaining > 0 && parser.nextToken() != JsonToken.END_ARRAY; index++) {
+                readOrSkip(parser, step.next.get(String.valueOf(index)), regions);
+            }
+        }
+    }
+
+    private void readOrSkip(JsonParser parser, Step next, Map<String, JsonNode> regions) throws IOException {
+        if (next != null) {
+            read(parser, next, regions);
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void addRegions(Step step, JsonNode value, Map<String, JsonNode> regions) {
+        if (value.isMissingNode()) {
+            return;
+        }
+        if (step.pointer != null) {
+            regions.put(step.pointer, value);
+            remaining--;
+        }
+        step.next.forEach((name, next) -> addRegions(next, value.at(JsonPointer.empty().appendProperty(name)), regions));
+    }
+
+    private static final class Step {
+        private final Map<String, Step> next = new HashMap<>();
+        private String pointer;
+        private JsonTemplate template;
+    }
+}
@@ -0,0 +1,268 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jtest.utils.matcher.MatchOutcome;
+import io.jtest.utils.matcher.condition.MatchCondition;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expected JSON compiled once into a tree of matchers, to be matched against any number of
+ * actual JSONs, from any thread.
+ *
+ * <p>Every field name and scalar of the expected tree is pre-classified as a literal, a regex
+ * or a {@code ~[name]} placeholder template, and its pattern is compiled up front. Matching
+ * walks both trees once and returns the captured placeholder values, or {@code null} on
+ * mismatch. It builds no diff and no message: callers that need to explain a mismatch still
+ * go through {@code JSONCompare}.
+ *
+ * <p>The template understands the same conventions as {@code JSONCompare} ({@code !} negation,
+ * {@code !.*} for non-extensible objects and arrays) and its verdict is final. It differs from
+ * {@code JSONCompare} in one respect: the elements of an array in any order are assigned to
+ * each other as a bipartite matching, so an actual array matches whenever some assignment of
+ * distinct actual elements to all expected elements exists, even one that assigning each
+ * expected element to the first actual element it matches would miss. The few nodes holding
+ * constructs whose rules the template does not replicate, such as escaped keywords or JSON path
+ * field names, are compared with {@code JSONCompare} one by one, by its rules, without affecting
+ * how the rest of the tree is matched.
+ *
+ * <p>Field names with {@code ~[name]} placeholders bind their captured values for the rest of
+ * the match. When a binding chosen for one field makes a later part of the match fail, only
+ * the subtree where the binding was chosen is matched again, against its next candidate;
+ * subtrees already matched are kept. The number of such retries is bounded by
+ * {@link #DEFAULT_MAX_RETRIES} and reported by {@link #tryMatch(JsonNode)}.
+ */
+public final class JsonTemplate {
+
+    /** Field-name binding retries after which a match gives up, reporting a mismatch. */
+    public static final int DEFAULT_MAX_RETRIES = 10_000;
+
+    static final String DO_NOT_MATCH_PREFIX = "!";
+    static final String DO_NOT_MATCH_ANY = "!.*";
+    static final String JSON_PATH_PREFIX = "#(";
+
+    private final TemplateNode root;
+    private volatile ReadShape readShape;
+
+    private JsonTemplate(TemplateNode root) {
+        this.root = root;
+    }
+
+    /**
+     * @param expected        the expected JSON; must not be modified afterwards
+     * @param matchConditions conditions the template is matched under; conditions that do
+     *                        not affect JSON comparison are ignored
+     */
+    public static JsonTemplate compile(JsonNode expected, Set<MatchCondition> matchConditions) {
+        return new JsonTemplate(compileNode(expected, Options.of(matchConditions)));
+    }
+
+    /**
+     * @param actual the actual JSON; may be {@code null}
+     * @return captured placeholder values (empty if there are none), or {@code null} if
+     * {@code actual} does not match
+     * @throws io.jtest.utils.exceptions.RegexBudgetExceededException if an expected regex needs
+     *                                                               more than the current
+     *                                                               {@link io.jtest.utils.matcher.RegexBudget}
+     */
+    public Map<String, Object> match(JsonNode actual) {
+        MatchOutcome outcome = tryMatch(actual);
+        return outcome.matched() ? outcome.properties() : null;
+    }
+
+    /**
+     * Same as {@link #match(JsonNode)}, also reporting the number of field-name binding retries.
+     * A match that runs out of retries is reported as a mismatch.
+     */
+    public MatchOutcome tryMatch(JsonNode actual) {
+        Search search = new Search(DEFAULT_MAX_RETRIES);
+        Captures[] matched = new Captures[1];
+        try {
+            if (root.matchEach(actual, new Captures(null), search, Path.ROOT, captures -> {
+                matched[0] = captures;
+                return true;
+            })) {
+                return MatchOutcome.matched(matched[0].properties(), search.retries());
+            }
+        } catch (RetriesExhaustedException e) {
+            // gave up: reported as a mismatch
+        }
+        return MatchOutcome.mismatch(search.retries());
+    }
+
+    /**
+     * Locates the mismatch of an {@code actual} JSON this template does not match, as far as
+     * literal field names and arrays in strict order lead, without building a diff.
+     *
+     * @return the JSON Pointer, in the expected JSON, of the deepest node found not to match
+     */
+    public String mismatchPointer(JsonNode actual) {
+        return root.mismatchPointer(actual);
+    }
+
+    /**
+     * Reads an actual JSON from {@code parser}, keeping only what this template can look at:
+     * fields the expected JSON does not mention are skipped without being materialized, so
+     * that a large actual JSON can be matched in memory proportional to the parts it asserts
+     * on. Matching the result gives the same outcome as matching the whole actual JSON.
+     * Arrays the template looks into are kept with the elements this outcome depends on, all of
+     * them if the expected elements capture values, each one reduced to the parts any expected
+     * element can look at. Subtrees compared with {@code JSONCompare} are read whole.
+     *
+     * <p>Skipped values are left out or replaced by empty or {@code null} ones: the result is
+     * only fit for being matched by this template, or by {@link #mismatchPointer(JsonNode)}, and
+     * must not be reported as the actual JSON.
+     *
+     * @param parser positioned before, or on the first token of, the actual JSON
+     * @return the reduced actual JSON, or {@code null} if {@code parser} has no more content
+     * @throws IOException if the actual JSON cannot be read or parsed
+     */
+    public JsonNode read(JsonParser parser) throws IOException {
+        if (parser.currentToken() == null && parser.nextToken() == null) {
+            return null;
+        }
+        ReadShape shape = readShape;
+        if (shape == null) {
+            readShape = shape = root.readShape();
+        }
+        return shape.read(parser);
+    }
+
+    /**
+     * Compiles an expected subtree. A scalar, object or array the template does not evaluate
+     * itself, the nodes below it aside, is compiled into a {@link JsonCompareNode}.
+     */
+    static TemplateNode compileNode(JsonNode expected, Options options) {
+        try {
+            if (expected.isObject()) {
+                return ObjectTemplateNode.compile(expected, options);
+            }
+            if (expected.isArray()) {
+                return ArrayTemplateNode.compile(expected, options);
+            }
+            if (expected.isNull() || expected.isNumber() || expected.isBoolean() || expected.isTextual()) {
+                return ValueTemplateNode.compile(expected, options.regexDisabled());
+            }
+        } catch (UnsupportedTemplateException e) {
+            // compared with JSONCompare below
+        }
+        return new JsonCompareNode(expected, options);
+    }
+
+    /**
+     * Rejects escaped {@code JSONCompare} keywords, whose unescaping rules the template does
+     * not replicate.
+     */
+    static void checkSupported(String expected) {
+        if (expected.equals("\\.*") || expected.equals("\\!.*")) {
+            throw new UnsupportedTemplateException();
+        }
+    }
+
+    /**
+     * Rejects, besides the escapes {@link #checkSupported(String)} rejects, {@code JSONCompare}
+     * JSON path field names ({@code "#($..path)"}, possibly negated), which the template would
+     * otherwise take for literal or regex field names.
+     */
+    static void checkSupportedFieldName(String name) {
+        checkSupported(name);
+        if (name.startsWith(JSON_PATH_PREFIX) || name.startsWith(DO_NOT_MATCH_PREFIX + JSON_PATH_PREFIX)) {
+            throw new UnsupportedTemplateException();
+        }
+    }
+
+    /**
+     * @return the JSON Pointer of {@code token} followed by the pointer {@code rest}
+     */
+    static String pointerTo(String token, String rest) {
+        return "/" + token.replace("~", "~0").replace("/", "~1") + rest;
+    }
+
+    /**
+     * Counts the alternatives rejected while backtracking over field-name bindings.
+     */
+    static final class Search {
+        private final int maxRetries;
+        private int retries;
+
+        Search(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        /**
+         * @throws RetriesExhaustedException once more than {@code maxRetries} were counted
+         */
+        void retry() {
+            if (++retries > maxRetries) {
+                throw new RetriesExhaustedException();
+            }
+        }
+
+        int retries() {
+            return retries;
+        }
+    }
+
+    /**
+     * Location of a node in the expected JSON, as a chain of JSON Pointer tokens.
+     */
+    record Path(Path parent, String token) {
+        static final Path ROOT = new Path(null, null);
+
+        Path child(String token) {
+            return new Path(this, token);
+        }
+
+        String pointer() {
+            return parent == null ? "" : parent.pointer() + pointerTo(token, "");
+        }
+    }
+
+    record Options(boolean regexDisabled, boolean nonExtensibleObjects, boolean nonExtensibleArrays,
+                   boolean strictOrderArrays, boolean parallel) {
+
+        static Options of(Set<MatchCondition> matchConditions) {
+            return new Options(matchConditions.contains(MatchCondition.REGEX_DISABLED),
+                    matchConditions.contains(MatchCondition.JSON_NON_EXTENSIBLE_OBJECT),
+                    matchConditions.contains(MatchCondition.JSON_NON_EXTENSIBLE_ARRAY),
+                    matchConditions.contains(MatchCondition.JSON_STRICT_ORDER_ARRAY),
+                    matchConditions.contains(MatchCondition.JSON_PARALLEL));
+        }
+
+        /**
+         * @return the conditions these options were derived from, but for {@code JSON_PARALLEL}
+         */
+        Set<MatchCondition> matchConditions() {
+            Set<MatchCondition> conditions = EnumSet.noneOf(MatchCondition.class);
+            if (regexDisabled) {
+                conditions.add(MatchCondition.REGEX_DISABLED);
+            }
+            if (nonExtensibleObjects) {
+                conditions.add(MatchCondition.JSON_NON_EXTENSIBLE_OBJECT);
+            }
+            if (nonExtensibleArrays) {
+                conditions.add(MatchCondition.JSON_NON_EXTENSIBLE_ARRAY);
+            }
+            if (strictOrderArrays) {
+                conditions.add(MatchCondition.JSON_STRICT_ORDER_ARRAY);
+            }
+            return conditions;
+        }
+    }
+
+    static final class UnsupportedTemplateException extends RuntimeException {
+        UnsupportedTemplateException() {
+            super(null, null, false, false);
+        }
+    }
+
+    static final class RetriesExhaustedException extends RuntimeException {
+        RetriesExhaustedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jtest.utils.exceptions.RegexBudgetExceededException;
+import io.jtest.utils.matcher.ExpectedString;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Expected JSON object. Each expected field must be matched by a distinct actual field whose
+ * name matches the expected name and whose value matches the expected value. Literal names are
+ * looked up directly, other names are matched against every actual field in turn.
+ *
+ * <p>A {@code "!name"} field forbids any actual field matching {@code name}; a {@code "!.*"}
+ * field, like {@code JSON_NON_EXTENSIBLE_OBJECT}, forbids actual fields not claimed by any
+ * expected field.
+ *
+ * <p>Fields that do not {@link TemplateNode#bindsFields() bind field names} are matched first,
+ * once. The others are then matched one after the other, backtracking to the previous one's
+ * next candidate when a choice of bindings leaves no match for the rest.
+ *
+ * <p>A {@link TemplateNode#isLiteral() literal} object, with only literal names and values, is
+ * compared structurally instead: each expected field is looked up by name and compared with
+ * the actual value, all the way down, without capturing anything.
+ *
+ * <p>With {@code JSON_PARALLEL}, the values of literal fields that do not bind field names
+ * and hold large objects or arrays are matched as fork/join tasks, before their captures are
+ * merged in field order.
+ */
+final class ObjectTemplateNode implements TemplateNode {
+
+    private record Field(ExpectedString name, TemplateNode value) {
+        boolean bindsFields() {
+            return name.kind() == ExpectedString.Kind.PLACEHOLDERS || name.kind() == ExpectedString.Kind.STANDALONE_PLACEHOLDER
+                    || value.bindsFields();
+        }
+    }
+
+    private final List<Field> fields;
+    private final List<Field> bindingFields;
+    private final List<ExpectedString> forbiddenFields;
+    private final boolean nonExtensible;
+    private final boolean parallel;
+    private final boolean literal;
+
+    private ObjectTemplateNode(List<Field> fields, List<Field> bindingFields, List<ExpectedString> forbiddenFields,
+                               boolean nonExtensible, boolean parallel) {
+        this.fields = fields;
+        this.bindingFields = bindingFields;
+        this.forbiddenFields = forbiddenFields;
+        this.nonExtensible = nonExtensible;
+        this.parallel = parallel;
+        this.literal = bindingFields.isEmpty() && forbiddenFields.isEmpty() && fields.stream()
+                .allMatch(field -> field.name.kind() == ExpectedString.Kind.LITERAL && field.value.isLiteral());
+    }
+
+    static ObjectTemplateNode compile(JsonNode expected, JsonTemplate.Options options) {
+        List<Field> fields = new ArrayList<>();
+        List<Field> bindingFields = new ArrayList<>();
+        List<ExpectedString> forbiddenFields = new ArrayList<>();
+        boolean nonExtensible = options.nonExtensibleObjects();
+        for (Map.Entry<String, JsonNode> entry : expected.properties()) {
+            String name = entry.getKey();
+            JsonTemplate.checkSupportedFieldName(name);
+            if (name.equals(JsonTemplate.DO_NOT_MATCH_ANY)) {
+                nonExtensible = true;
+            } else if (name.startsWith(JsonTemplate.DO_NOT_MATCH_PREFIX)) {
+                forbiddenFields.add(ExpectedString.compile(name.substring(JsonTemplate.DO_NOT_MATCH_PREFIX.length()),
+                        options.regexDisabled()));
+            } else {
+                Field field = new Field(ExpectedString.compile(name, options.regexDisabled()),
+                        JsonTemplate.compileNode(entry.getValue(), options));
+                (field.bindsFields() ? bindingFields : fields).add(field);
+            }
+        }
+        return new ObjectTemplateNode(fields, bindingFields, forbiddenFields, nonExtensible, options.parallel());
+    }
+
+    @Override
+    public boolean bindsFields() {
+        return !bindingFields.isEmpty();
+    }
+
+    /**
+     * Pins down the value of the first literal field expecting a pinned down scalar, if any.
+     */
+    @Override
+    public ElementBuckets.Fingerprint fingerprint() {
+        for (Field field : fields) {
+            if (field.name.kind() == ExpectedString.Kind.LITERAL) {
+                ElementBuckets.Fingerprint value = field.value.fingerprint();
+                if (value.isPinnedScalar()) {
+                    return ElementBuckets.Fingerprint.field(field.name.value(), value.text());
+                }
+            }
+        }
+        return ElementBuckets.Fingerprint.OBJECT;
+    }
+
+    @Override
+    public ReadShape readShape() {
+        Map<ExpectedString, ReadShape> fieldShapes = new IdentityHashMap<>();
+        for (Field field : fields) {
+            fieldShapes.put(field.name, field.value.readShape());
+        }
+        for (Field field : bindingFields) {
+            fieldShapes.put(field.name, field.value.readShape());
+        }
+        return ReadShape.object(fieldShapes, nonExtensible || !forbiddenFields.isEmpty());
+    }
+
+    @Override
+    public boolean capturesValues() {
+        // the names of the other fields are literals or regexes
+        return !bindingFields.isEmpty() || fields.stream().anyMatch(field -> field.value.capturesValues());
+    }
+
+    /**
+     * Narrows the mismatch down to the first field with a literal name that does not bind
+     * field names and whose value does not match.
+     */
+    @Override
+    public String mismatchPointer(JsonNode actual) {
+        if (actual == null || !actual.isObject()) {
+            return "";
+        }
+        for (Field field : fields) {
+            if (field.name.kind() == ExpectedString.Kind.LITERAL) {
+                JsonNode value = actual.get(field.name.value());
+                if (field.value.match(value, new Captures(null)) == null) {
+                    return JsonTemplate.pointerTo(field.name.value(), field.value.mismatchPointer(value));
+                }
+            }
+        }
+        return "";
+    }
+
+    @Override
+    public boolean isLiteral() {
+        return literal;
+    }
+
+    @Override
+    public boolean matchesLiteral(JsonNode actual) {
+        if (actual == null || !actual.isObject() || (nonExtensible && actual.size() != fields.size())) {
+            return false;
+        }
+        for (Field field : fields) {
+            if (!field.value.matchesLiteral(actual.get(field.name.value()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Captures match(JsonNode actual, Captures parent) {
+        if (literal) {
+            return matchesLiteral(actual) ? parent.child() : null;
+        }
+        if (!bindingFields.isEmpty()) {
+            throw new IllegalStateException("field-binding fields are matched through matchEach");
+        }
+        Set<String> claimed = new HashSet<>();
+        Captures captures = matchFields(actual, parent, claimed);
+        return captures != null && (!nonExtensible || claimed.size() == actual.size()) ? captures : null;
+    }
+
+    @Override
+    public boolean matchEach(JsonNode actual, Captures parent, JsonTemplate.Search search, JsonTemplate.Path path,
+                             Predicate<Captures> next) {
+        if (bindingFields.isEmpty()) {
+            return TemplateNode.super.matchEach(actual, parent, search, path, next);
+        }
+        Set<String> claimed = new HashSet<>();
+        Captures captures;
+        try {
+            captures = matchFields(actual, parent, claimed);
+        } catch (RegexBudgetExceededException e) {
+            throw e.atPath(path.pointer() + e.getPath());
+        }
+        return captures != null && matchBindingFields(0, actual, captures, new String[bindingFields.size()], claimed,
+                search, path, next);
+    }
+
+    /**
+     * Matches the fields that do not bind field names, recording the actual names they claim.
+     *
+     * @return the captures of these fields; {@code null} if one of them has no match, or if
+     * {@code actual} is not an object or has a forbidden field
+     */
+    private Captures matchFields(JsonNode actual, Captures parent, Set<String> claimed) {
+        if (actual == null || !actual.isObject()) {
+            return null;
+        }
+        for (ExpectedString forbidden : forbiddenFields) {
+            try {
+                for (Iterator<String> names = actual.fieldNames(); names.hasNext(); ) {
+                    if (forbidden.match(names.next()) != null) {
+                        return null;
+                    }
+                }
+            } catch (RegexBudgetExceededException e) {
+                throw e.atPath(JsonTemplate.pointerTo(JsonTemplate.DO_NOT_MATCH_PREFIX + forbidden.value(), e.getPath()));
+            }
+        }
+        Captures captures = parent.child();
+        Map<Field, Captures> forked = parallel ? matchLargeFieldsInParallel(actual, captures) : Map.of();
+        for (Field field : fields) {
+            if (forked.containsKey(field)) {
+                Captures matched = forked.get(field);
+                if (matched == null || claimed.contains(field.name.value())) {
+                    return null;
+                }
+                captures.merge(matched);
+                claimed.add(field.name.value());
+                continue;
+            }
+            String matchedName;
+            try {
+                matchedName = matchField(field, actual, captures, claimed);
+            } catch (RegexBudgetExceededException e) {
+                throw e.atPath(JsonTemplate.pointerTo(field.name.value(), e.getPath()));
+            }
+            if (matchedName == null) {
+                return null;
+            }
+            claimed.add(matchedName);
+        }
+        return captures;
+    }
+
+    /**
+     * Matches the values of the literal fields whose actual values are large objects or arrays,
+     * if there are several of them, as fork/join tasks. These fields do not bind field names,
+     * so what they match does not depend on the captures of the others.
+     *
+     * @return the captures of each of these fields, or {@code null} if its value has no match
+     */
+    private Map<Field, Captures> matchLargeFieldsInParallel(JsonNode actual, Captures captures) {
+        List<Field> large = new ArrayList<>();
+        for (Field field : fields) {
+            if (field.name.kind() == ExpectedString.Kind.LITERAL && !(field.value instanceof ValueTemplateNode)) {
+                JsonNode value = actual.get(field.name.value());
+                if (value != null && value.isContainerNode() && value.size() >= ParallelMatch.MIN_CHILDREN) {
+                    large.add(field);
+                }
+            }
+        }
+        if (large.size() < 2) {
+            return Map.of();
+        }
+        List<Supplier<Captures>> parts = new ArrayList<>(large.size());
+        for (Field field : large) {
+            parts.add(() -> {
+                try {
+                    return field.value.match(actual.get(field.name.value()), captures);
+                } catch (RegexBudgetExceededException e) {
+                    throw e.atPath(JsonTemplate.pointerTo(field.name.value(), e.getPath()));
+                }
+            });
+        }
+        List<Captures> results = ParallelMatch.invokeAll(parts);
+        Map<Field, Captures> forked = new IdentityHashMap<>();
+        for (int i = 0; i < large.size(); i++) {
+            forked.put(large.get(i), results.get(i));
+        }
+        return forked;
+    }
+
+    /**
+     * @return the name of the first actual field not yet {@code claimed} that matches
+     * {@code field}, after merging its captures into {@code captures}; {@code null} if there is none
+     */
+    private static String matchField(Field field, JsonNode actual, Captures captures, Set<String> claimed) {
+        if (field.name.kind() == ExpectedString.Kind.LITERAL) {
+            if (claimed.contains(field.name.value())) {
+                return null;
+            }
+            Captures matched = field.value.match(actual.get(field.name.value()), captures);
+            if (matched == null) {
+                return null;
+            }
+            captures.merge(matched);
+            return field.name.value();
+        }
+        for (Map.Entry<String, JsonNode> candidate : actual.properties()) {
+            if (claimed.contains(candidate.getKey()) || field.name.match(candidate.getKey()) == null) {
+                continue;
+            }
+            Captures matched = field.value.match(candidate.getValue(), captures);
+            if (matched != null) {
+                captures.merge(matched);
+                return candidate.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Matches the field-binding fields from {@code index} on, then hands the captures over to
+     * {@code next}. Each candidate actual field, and each way its value matches, is tried in
+     * turn until the rest of the match succeeds.
+     */
+    private boolean matchBindingFields(int index, JsonNode actual, Captures captures, String[] chosen, Set<String> claimed,
+                                       JsonTemplate.Search search, JsonTemplate.Path path, Predicate<Captures> next) {
+        if (index == bindingFields.size()) {
+            // chosen names are distinct from each other and from the claimed ones
+            return (!nonExtensible || claimed.size() + chosen.length == actual.size()) && next.test(captures);
+        }
+        Field field = bindingFields.get(index);
+        if (field.name.kind() == ExpectedString.Kind.LITERAL) {
+            if (isTaken(field.name.value(), index, chosen, claimed)) {
+                return false;
+            }
+            return matchBindingField(index, field.name.value(), actual.get(field.name.value()), actual, captures,
+                    chosen, claimed, search, path, next);
+        }
+        for (Map.Entry<String, JsonNode> candidate : actual.properties()) {
+            if (isTaken(candidate.getKey(), index, chosen, claimed)) {
+                continue;
+            }
+            Map<String, Object> captured;
+            try {
+                captured = field.name.match(candidate.getKey());
+            } catch (RegexBudgetExceededException e) {
+                throw e.atPath(path.child(field.name.value()).pointer());
+            }
+            if (captured == null) {
+                continue;
+            }
+            Captures attempt = captures.child();
+            if (attempt.bindFields(captured) && matchBindingField(index, candidate.getKey(), candidate.getValue(), actual,
+                    attempt, chosen, claimed, search, path, next)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTaken(String actualName, int index, String[] chosen, Set<String> claimed) {
+        if (claimed.contains(actualName)) {
+            return true;
+        }
+        for (int i = 0; i < index; i++) {
+            if (chosen[i].equals(actualName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchBindingField(int index, String actualName, JsonNode actualValue, JsonNode actual, Captures captures,
+                                      String[] chosen, Set<String> claimed, JsonTemplate.Search search,
+                                      JsonTemplate.Path path, Predicate<Captures> next) {
+        Field field = bindingFields.get(index);
+        return field.value.matchEach(actualValue, captures, search, path.child(field.name.value()), matched -> {
+            chosen[index] = actualName;
+            if (matchBindingFields(index + 1, actual, matched, chosen, claimed, search, path, next)) {
+                return true;
+            }
+            search.retry();
+            return false;
+        });
+    }
+}
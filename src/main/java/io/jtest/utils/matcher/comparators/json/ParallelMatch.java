@@ -0,0 +1,52 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import io.jtest.utils.matcher.RegexBudget;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent parts of a match as fork/join tasks, for
+ * {@link io.jtest.utils.matcher.condition.MatchCondition#JSON_PARALLEL}.
+ *
+ * <p>Tasks run in the common pool, or in the pool of the task that forks them, under the
+ * {@link RegexBudget} of the thread that started the match. Their results are returned in task
+ * order, so that captures are merged exactly as in a sequential match.
+ */
+final class ParallelMatch {
+
+    /** Arrays with fewer elements are matched sequentially. */
+    static final int MIN_ARRAY_SIZE = 256;
+    /** Objects and arrays with fewer children are not worth a task of their own. */
+    static final int MIN_CHILDREN = 16;
+
+    private ParallelMatch() {
+
+    }
+
+    /**
+     * @return the results of {@code parts}, in the same order
+     */
+    static <T> List<T> invokeAll(List<Supplier<T>> parts) {
+        RegexBudget budget = RegexBudget.current();
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(parts.size());
+        for (Supplier<T> part : parts) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                RegexBudget.Scope scope = RegexBudget.scoped(budget);
+                try {
+                    return part.get();
+                } finally {
+                    scope.close();
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        List<T> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<T> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,207 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.jtest.utils.matcher.ExpectedString;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * The parts of an actual JSON that a {@link JsonTemplate} can look at, used to read a large
+ * actual JSON from a token stream without materializing the rest of it.
+ *
+ * <p>Scalars are always read. Objects are read only where the template expects an object, and
+ * only the fields whose names the template can match; the names of the other fields are kept
+ * (with {@code null} values) only where the template counts or forbids fields. Arrays are
+ * read only where the template expects an array, every element being read with the shape of
+ * all the expected elements together, and only the elements the template's verdict depends on
+ * are kept. Skipped objects and arrays are read as empty ones: the template only compares
+ * scalars with scalars, so it does not match them either way.
+ *
+ * <p>The JSON read is therefore fit only for being matched by the template: it is not the
+ * actual JSON, and must not be shown as such.
+ */
+final class ReadShape {
+
+    static final ReadShape SCALAR = new ReadShape(false, Map.of(), List.of(), false, null, null);
+    /** Reads the whole value, for subtrees compared with {@code JSONCompare}. */
+    static final ReadShape ALL = new ReadShape(true, Map.of(), List.of(), true, null, null);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory NODES = MAPPER.getNodeFactory();
+
+    private record NamePattern(ExpectedString name, ReadShape value) {
+    }
+
+    private final boolean objects;
+    private final Map<String, ReadShape> fields;
+    private final List<NamePattern> namePatterns;
+    private final boolean allFieldNames;
+    private final ReadShape elements;
+    private final Supplier<Predicate<JsonNode>> retention;
+
+    private ReadShape(boolean objects, Map<String, ReadShape> fields, List<NamePattern> namePatterns,
+                      boolean allFieldNames, ReadShape elements, Supplier<Predicate<JsonNode>> retention) {
+        this.objects = objects;
+        this.fields = fields;
+        this.namePatterns = namePatterns;
+        this.allFieldNames = allFieldNames;
+        this.elements = elements;
+        this.retention = retention;
+    }
+
+    /**
+     * Shape of an expected object.
+     *
+     * @param fields        expected field names and the shapes of their values
+     * @param allFieldNames {@code true} if the object is non-extensible or forbids fields
+     */
+    static ReadShape object(Map<ExpectedString, ReadShape> fields, boolean allFieldNames) {
+        Map<String, ReadShape> literalFields = new HashMap<>();
+        List<NamePattern> namePatterns = new ArrayList<>();
+        fields.forEach((name, value) -> {
+            if (name.kind() == ExpectedString.Kind.LITERAL) {
+                literalFields.merge(name.value(), value, ReadShape::merge);
+            } else {
+                namePatterns.add(new NamePattern(name, value));
+            }
+        });
+        return new ReadShape(true, literalFields, namePatterns, allFieldNames, null, null);
+    }
+
+    /**
+     * Shape of an expected array.
+     *
+     * @param elements  shapes of the expected elements, forbidden ones included
+     * @param retention supplies, for each actual array read, a filter telling for each element
+     *                  in turn whether to keep it; {@code null} to keep every element
+     */
+    static ReadShape array(List<ReadShape> elements, Supplier<Predicate<JsonNode>> retention) {
+        return new ReadShape(false, Map.of(), List.of(), false,
+                elements.stream().reduce(SCALAR, ReadShape::merge), retention);
+    }
+
+    /**
+     * @return the shape reading everything either {@code a} or {@code b} reads
+     */
+    static ReadShape merge(ReadShape a, ReadShape b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        if (a == ALL || b == ALL) {
+            return ALL;
+        }
+        if (a == SCALAR || b == SCALAR) {
+            return a == SCALAR ? b : a;
+        }
+        Map<String, ReadShape> fields = new HashMap<>(a.fields);
+        b.fields.forEach((name, value) -> fields.merge(name, value, ReadShape::merge));
+        List<NamePattern> namePatterns = new ArrayList<>(a.namePatterns);
+        namePatterns.addAll(b.namePatterns);
+        return new ReadShape(a.objects || b.objects, fields, namePatterns, a.allFieldNames || b.allFieldNames,
+                merge(a.elements, b.elements), mergeRetention(a, b));
+    }
+
+    /**
+     * @return the retention keeping every element either {@code a} or {@code b} keeps
+     */
+    private static Supplier<Predicate<JsonNode>> mergeRetention(ReadShape a, ReadShape b) {
+        if (a.elements == null || b.elements == null) {
+            return a.elements == null ? b.retention : a.retention;
+        }
+        if (a.retention == null || b.retention == null) {
+            return null;
+        }
+        return () -> {
+            Predicate<JsonNode> keptByA = a.retention.get();
+            Predicate<JsonNode> keptByB = b.retention.get();
+            // both filters see every element, to keep their counts
+            return element -> keptByA.test(element) | keptByB.test(element);
+        };
+    }
+
+    /**
+     * Reads the value starting at the current token of {@code parser}, leaving the parser on
+     * its last token.
+     */
+    JsonNode read(JsonParser parser) throws IOException {
+        if (this == ALL) {
+            return MAPPER.readTree(parser);
+        }
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            if (!objects) {
+                parser.skipChildren();
+                return NODES.objectNode();
+            }
+            return readObject(parser);
+        }
+        if (token == JsonToken.START_ARRAY) {
+            if (elements == null) {
+                parser.skipChildren();
+                return NODES.arrayNode();
+            }
+            ArrayNode array = NODES.arrayNode();
+            Predicate<JsonNode> kept = retention != null ? retention.get() : null;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                JsonNode element = elements.read(parser);
+                if (kept == null || kept.test(element)) {
+                    array.add(element);
+                }
+            }
+            return array;
+        }
+        return token == JsonToken.VALUE_NULL ? NullNode.getInstance() : MAPPER.readTree(parser);
+    }
+
+    private ObjectNode readObject(JsonParser parser) throws IOException {
+        ObjectNode object = NODES.objectNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            ReadShape value = fieldShape(name);
+            parser.nextToken();
+            if (value != null) {
+                object.set(name, value.read(parser));
+            } else {
+                parser.skipChildren();
+                if (allFieldNames) {
+                    object.set(name, NullNode.getInstance());
+                }
+            }
+        }
+        return object;
+    }
+
+    /**
+     * @return the shape of the value of the actual field {@code name}; {@code null} if no
+     * expected field name matches it
+     */
+    private ReadShape fieldShape(String name) {
+        ReadShape shape = fields.get(name);
+        for (NamePattern pattern : namePatterns) {
+            if (pattern.name.match(name) != null) {
+                shape = merge(shape, pattern.value);
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Reads the whole value starting at the next token of {@code parser}.
+     */
+    static JsonNode readAll(JsonParser parser) throws IOException {
+        return MAPPER.readTree(parser);
+    }
+}
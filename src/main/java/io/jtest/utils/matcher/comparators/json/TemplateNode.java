@@ -0,0 +1,96 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jtest.utils.exceptions.RegexBudgetExceededException;
+
+import java.util.function.Predicate;
+
+/**
+ * One node of a compiled {@link JsonTemplate}.
+ */
+sealed interface TemplateNode permits ObjectTemplateNode, ArrayTemplateNode, ValueTemplateNode, JsonCompareNode {
+
+    /**
+     * Matches a subtree that does not {@link #bindsFields() bind field names}, which has a
+     * single relevant way to match. Subtrees that bind field names are only matched through
+     * {@link #matchEach}, within the search and at the path of the whole match.
+     *
+     * @param actual the actual node at the same position; may be {@code null}
+     * @param parent captures of the enclosing match, used to check field-name bindings
+     * @return the captures of this subtree, or {@code null} if {@code actual} does not match
+     * @throws IllegalStateException if this subtree binds field names
+     */
+    Captures match(JsonNode actual, Captures parent);
+
+    /**
+     * Offers the ways this subtree matches {@code actual} to {@code next}, one at a time, until
+     * {@code next} accepts one. Only subtrees that {@link #bindsFields() bind field names} can
+     * match in more than one relevant way: the field-name bindings chosen here may be what makes
+     * the rest of the match, run by {@code next}, fail.
+     *
+     * @param path   location of this node in the expected JSON, for error reporting
+     * @param search bounds the number of alternatives rejected by {@code next}
+     * @return {@code true} as soon as {@code next} accepts a match
+     */
+    default boolean matchEach(JsonNode actual, Captures parent, JsonTemplate.Search search, JsonTemplate.Path path,
+                              Predicate<Captures> next) {
+        Captures captures;
+        try {
+            captures = match(actual, parent);
+        } catch (RegexBudgetExceededException e) {
+            throw e.atPath(path.pointer() + e.getPath());
+        }
+        return captures != null && next.test(captures);
+    }
+
+    /**
+     * @return {@code true} if this subtree contains field names with {@code ~[name]} placeholders
+     */
+    default boolean bindsFields() {
+        return false;
+    }
+
+    /**
+     * @return {@code true} if this subtree can capture placeholder values, from field names or
+     * from values
+     */
+    boolean capturesValues();
+
+    /**
+     * Locates, for an {@code actual} node this subtree does not match, the expected node the
+     * mismatch was narrowed down to: the deepest one below a literal field name, or a position
+     * of an array in strict order, that does not match the actual node at the same place.
+     *
+     * @param actual the actual node at the same position; may be {@code null}
+     * @return the JSON Pointer of that node, relative to this one
+     */
+    default String mismatchPointer(JsonNode actual) {
+        return "";
+    }
+
+    /**
+     * @return {@code true} if this subtree has only literal field names and values: no regexes,
+     * no placeholders and no negations
+     */
+    boolean isLiteral();
+
+    /**
+     * Compares a {@link #isLiteral() literal} subtree with {@code actual} structurally, under
+     * the same conditions as {@link #match(JsonNode, Captures)}, without going through
+     * {@link io.jtest.utils.matcher.ExpectedString} or creating captures.
+     *
+     * @param actual the actual node at the same position; may be {@code null}
+     */
+    boolean matchesLiteral(JsonNode actual);
+
+    /**
+     * @return the parts of an actual JSON this subtree can look at
+     */
+    ReadShape readShape();
+
+    /**
+     * @return a condition every actual node matching this subtree meets, used to pick the
+     * candidate elements of an actual array
+     */
+    ElementBuckets.Fingerprint fingerprint();
+}
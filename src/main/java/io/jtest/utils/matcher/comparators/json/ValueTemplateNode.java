@@ -0,0 +1,127 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jtest.utils.matcher.ExpectedString;
+
+import java.util.Map;
+
+/**
+ * Expected scalar: {@code null}, a number, a boolean or a string. Strings are matched as
+ * {@link ExpectedString}s against the text of any actual scalar; a leading {@code !} negates
+ * the match. Numbers and booleans must be equal, as text, to an actual scalar of the same type.
+ * Literal strings are compared with the text of the actual scalar directly.
+ */
+final class ValueTemplateNode implements TemplateNode {
+
+    private enum Type {NULL, NUMBER, BOOLEAN, TEXT}
+
+    private final Type type;
+    private final String text;
+    private final ExpectedString expectedString;
+    private final boolean negated;
+
+    private ValueTemplateNode(Type type, String text, ExpectedString expectedString, boolean negated) {
+        this.type = type;
+        this.text = text;
+        this.expectedString = expectedString;
+        this.negated = negated;
+    }
+
+    static ValueTemplateNode compile(JsonNode expected, boolean regexDisabled) {
+        if (expected.isNull()) {
+            return new ValueTemplateNode(Type.NULL, null, null, false);
+        }
+        if (expected.isNumber()) {
+            return new ValueTemplateNode(Type.NUMBER, expected.asText(), null, false);
+        }
+        if (expected.isBoolean()) {
+            return new ValueTemplateNode(Type.BOOLEAN, expected.asText(), null, false);
+        }
+        String value = expected.textValue();
+        JsonTemplate.checkSupported(value);
+        boolean negated = value.startsWith(JsonTemplate.DO_NOT_MATCH_PREFIX);
+        String sanitized = negated ? value.substring(JsonTemplate.DO_NOT_MATCH_PREFIX.length()) : value;
+        return new ValueTemplateNode(Type.TEXT, value, ExpectedString.compile(sanitized, regexDisabled), negated);
+    }
+
+    @Override
+    public boolean capturesValues() {
+        return type == Type.TEXT && !negated && (expectedString.kind() == ExpectedString.Kind.PLACEHOLDERS
+                || expectedString.kind() == ExpectedString.Kind.STANDALONE_PLACEHOLDER);
+    }
+
+    @Override
+    public boolean isLiteral() {
+        return type != Type.TEXT || (!negated && expectedString.kind() == ExpectedString.Kind.LITERAL);
+    }
+
+    @Override
+    public boolean matchesLiteral(JsonNode actual) {
+        if (actual == null || !actual.isValueNode()) {
+            return false;
+        }
+        if (type == Type.NULL || actual.isNull()) {
+            return type == Type.NULL && actual.isNull();
+        }
+        return switch (type) {
+            case NUMBER -> actual.isNumber() && text.equals(actual.asText());
+            case BOOLEAN -> actual.isBoolean() && text.equals(actual.asText());
+            default -> text.equals(actual.asText());
+        };
+    }
+
+    @Override
+    public Captures match(JsonNode actual, Captures parent) {
+        if (isLiteral()) {
+            return matchesLiteral(actual) ? parent.child() : null;
+        }
+        if (actual == null || !actual.isValueNode()) {
+            return null;
+        }
+        if (type == Type.NULL || actual.isNull()) {
+            return type == Type.NULL && actual.isNull() ? parent.child() : null;
+        }
+        return switch (type) {
+            case NUMBER -> actual.isNumber() && text.equals(actual.asText()) ? parent.child() : null;
+            case BOOLEAN -> actual.isBoolean() && text.equals(actual.asText()) ? parent.child() : null;
+            default -> matchText(actual.asText(), parent);
+        };
+    }
+
+    private Captures matchText(String actual, Captures parent) {
+        Map<String, Object> captured = expectedString.match(actual);
+        if (negated) {
+            return captured == null ? parent.child() : null;
+        }
+        if (captured == null) {
+            return null;
+        }
+        Captures captures = parent.child();
+        captures.addValues(captured);
+        return captures;
+    }
+
+    /**
+     * Pins down the text of the actual scalar unless the expected string is a regex, a
+     * placeholder template or negated. An actual {@code null} has the text {@code "null"}.
+     */
+    @Override
+    public ElementBuckets.Fingerprint fingerprint() {
+        return switch (type) {
+            case NULL -> ElementBuckets.Fingerprint.scalar("null");
+            case NUMBER, BOOLEAN -> ElementBuckets.Fingerprint.scalar(text);
+            default -> !negated && expectedString.kind() == ExpectedString.Kind.LITERAL
+                    ? ElementBuckets.Fingerprint.scalar(expectedString.value()) : ElementBuckets.Fingerprint.SCALAR;
+        };
+    }
+
+    @Override
+    public ReadShape readShape() {
+        return ReadShape.SCALAR;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(text);
+    }
+}
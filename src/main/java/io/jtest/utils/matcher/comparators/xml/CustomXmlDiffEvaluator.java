@@ -1,6 +1,8 @@
 package io.jtest.utils.matcher.comparators.xml;
 
 import io.jtest.utils.exceptions.InvalidTypeException;
+import io.jtest.utils.exceptions.RegexBudgetExceededException;
+import io.jtest.utils.matcher.MatchOutcome;
 import io.jtest.utils.matcher.StringMatcher;
 import io.jtest.utils.matcher.condition.MatchCondition;
 import org.w3c.dom.Attr;
@@ -56,7 +58,15 @@ public class CustomXmlDiffEvaluator implements DifferenceEvaluator {
             return ComparisonResult.SIMILAR;
         }
         Node actualNode = comparison.getTestDetails().getTarget();
+        try {
+            return evaluate(comparisonType, expectedNode, actualNode, comparisonResult);
+        } catch (RegexBudgetExceededException e) {
+            throw e.atPath(comparison.getControlDetails().getXPath());
+        }
+    }
 
+    private ComparisonResult evaluate(ComparisonType comparisonType, Node expectedNode, Node actualNode,
+                                      ComparisonResult comparisonResult) {
         if (expectedNode instanceof Attr expectedAttr && actualNode instanceof Attr actualAttr) {
             return compare(expectedAttr.getValue(), actualAttr.getValue());
         }
@@ -70,45 +80,58 @@ public class CustomXmlDiffEvaluator implements DifferenceEvaluator {
     }
 
     private ComparisonResult compare(Map<QName, String> expectedAttributes, Map<QName, String> actualAttributes) {
-        try {
-            generatedProperties.putAll(match(expectedAttributes, actualAttributes));
-        } catch (XmlMatchException e) {
-            return ComparisonResult.DIFFERENT;
-        }
-        return ComparisonResult.SIMILAR;
+        return record(matchAttributes(expectedAttributes, actualAttributes));
     }
 
     private ComparisonResult compare(String expected, String actual) {
-        try {
-            generatedProperties.putAll(match(expected, actual));
-        } catch (XmlMatchException e) {
+        return record(matchValues(expected, actual));
+    }
+
+    private ComparisonResult record(MatchOutcome outcome) {
+        if (!outcome.matched()) {
             return ComparisonResult.DIFFERENT;
         }
+        generatedProperties.putAll(outcome.properties());
         return ComparisonResult.SIMILAR;
     }
 
     public Map<String, Object> match(Map<QName, String> expectedAttributes, Map<QName, String> actualAttributes) throws XmlMatchException {
+        return orThrow(matchAttributes(expectedAttributes, actualAttributes));
+    }
+
+    public Map<String, Object> match(String expected, String actual) throws XmlMatchException {
+        return orThrow(matchValues(expected, actual));
+    }
+
+    private MatchOutcome matchAttributes(Map<QName, String> expectedAttributes, Map<QName, String> actualAttributes) {
         Map<String, Object> generatedProps = new HashMap<>();
         for (Map.Entry<QName, String> expAttr : expectedAttributes.entrySet()) {
             String actualAttrVal = actualAttributes.get(expAttr.getKey());
             if (actualAttrVal == null) {
-                throw new XmlMatchException();
+                return MatchOutcome.mismatch();
             }
-            try {
-                generatedProps.putAll(match(expAttr.getValue(), actualAttrVal));
-            } catch (XmlMatchException e) {
-                throw new XmlMatchException();
+            MatchOutcome outcome = matchValues(expAttr.getValue(), actualAttrVal);
+            if (!outcome.matched()) {
+                return outcome;
             }
+            generatedProps.putAll(outcome.properties());
         }
-        return generatedProps;
+        return MatchOutcome.matched(generatedProps);
     }
 
-    public Map<String, Object> match(String expected, String actual) throws XmlMatchException {
+    private MatchOutcome matchValues(String expected, String actual) {
         try {
-            return new StringMatcher(null, expected, actual, matchConditions).match();
-        } catch (AssertionError | InvalidTypeException e) {
+            return new StringMatcher(null, expected, actual, matchConditions).tryMatch();
+        } catch (InvalidTypeException e) {
+            return MatchOutcome.mismatch();
+        }
+    }
+
+    private static Map<String, Object> orThrow(MatchOutcome outcome) throws XmlMatchException {
+        if (!outcome.matched()) {
             throw new XmlMatchException();
         }
+        return outcome.properties();
     }
 
     public Map<String, Object> getGeneratedProperties() {
@@ -0,0 +1,557 @@
+package io.jtest.utils.matcher.comparators.xml;
+
+import io.jtest.utils.common.SiblingIndex;
+import io.jtest.utils.exceptions.InvalidTypeException;
+import io.jtest.utils.exceptions.RegexBudgetExceededException;
+import io.jtest.utils.matcher.MatchOutcome;
+import io.jtest.utils.matcher.StringMatcher;
+import io.jtest.utils.matcher.condition.MatchCondition;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expected XML compiled once into a compact tree, to be matched against actual XMLs read as
+ * StAX events, without building their DOM. Memory stays proportional to the expected XML and
+ * to the depth of the actual one: actual elements are compared while they are read, and those
+ * no expected element can take are skipped.
+ *
+ * <p>Matches like {@code XmlMatcher}: whitespace around text is ignored, attribute values and
+ * texts are matched as strings, with {@code ~[name]} captures, extra actual attributes and
+ * children are tolerated unless the conditions say otherwise, and same-named children are
+ * matched in any order, each expected child taking a distinct actual one; such an assignment
+ * is found even where the first-fit choice of the DOM comparison misses it. Element and
+ * attribute names are compared as written, prefixes included, and namespace declarations
+ * count as attributes. Unlike the DOM comparison, adjacent text and CDATA sections are
+ * compared as one text, and texts, comments and processing instructions are paired in the
+ * order they come in, per kind.
+ *
+ * <p>The reader must not be namespace aware, for names to be reported as written.
+ */
+public final class XmlTemplate {
+
+    private final ElementTemplate root;
+    private final Set<MatchCondition> matchConditions;
+    private final boolean sequence;
+    private final boolean length;
+    private final boolean numAttributes;
+
+    private XmlTemplate(ElementTemplate root, Set<MatchCondition> matchConditions) {
+        this.root = root;
+        this.matchConditions = matchConditions;
+        this.sequence = matchConditions.contains(MatchCondition.XML_CHILD_NODELIST_SEQUENCE);
+        this.length = matchConditions.contains(MatchCondition.XML_CHILD_NODELIST_LENGTH);
+        this.numAttributes = matchConditions.contains(MatchCondition.XML_ELEMENT_NUM_ATTRIBUTES);
+    }
+
+    /**
+     * @param expected        the expected XML element, or a document; must not be modified
+     *                        while compiling
+     * @param matchConditions conditions the template is matched under; {@code DO_NOT_MATCH}
+     *                        and conditions that do not affect XML comparison are ignored
+     */
+    public static XmlTemplate compile(Node expected, Set<MatchCondition> matchConditions) {
+        Node element = expected instanceof Document document ? document.getDocumentElement() : expected;
+        Set<MatchCondition> conditions = matchConditions.isEmpty() ? EnumSet.noneOf(MatchCondition.class) : EnumSet.copyOf(matchConditions);
+        conditions.remove(MatchCondition.DO_NOT_MATCH);
+        return new XmlTemplate(new ElementTemplate(element, "/" + element.getNodeName()), conditions);
+    }
+
+    /**
+     * Reads the actual XML from {@code reader} up to the end of its root element.
+     *
+     * @param reader positioned before, or on, the start of the actual root element
+     * @return the outcome, with the captured placeholder values if the XMLs match
+     * @throws XMLStreamException if the actual XML cannot be read or parsed
+     * @throws RegexBudgetExceededException if an expected regex needs more than the current
+     *                                      {@link io.jtest.utils.matcher.RegexBudget}
+     */
+    public MatchOutcome tryMatch(XMLStreamReader reader) throws XMLStreamException {
+        while (!reader.isStartElement()) {
+            if (!reader.hasNext()) {
+                return MatchOutcome.mismatch();
+            }
+            reader.next();
+        }
+        if (!root.name.equals(reader.getLocalName())) {
+            return MatchOutcome.mismatch();
+        }
+        Map<String, Object> captures = match(reader, List.of(root)).get(0);
+        return captures != null ? MatchOutcome.matched(captures) : MatchOutcome.mismatch();
+    }
+
+    /**
+     * Reads the actual element {@code reader} is on, up to its end, comparing it with each of
+     * {@code candidates} at once.
+     *
+     * @return for each candidate, the values captured by matching it, or {@code null}
+     */
+    private List<Map<String, Object>> match(XMLStreamReader reader, List<ElementTemplate> candidates) throws XMLStreamException {
+        List<Comparison> comparisons = new ArrayList<>(candidates.size());
+        int live = 0;
+        for (ElementTemplate candidate : candidates) {
+            Map<String, Object> captures = matchAttributes(candidate, reader);
+            comparisons.add(captures != null ? new Comparison(candidate, captures) : null);
+            live += captures != null ? 1 : 0;
+        }
+        int index = 0;
+        StringBuilder text = null;
+        while (live > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                text = text != null ? text : new StringBuilder();
+                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                continue;
+            }
+            if (text != null) {
+                String value = text.toString().trim();
+                text = null;
+                if (!value.isEmpty()) {
+                    live = compareValue(comparisons, ValueKind.TEXT, value, index++, live);
+                }
+            }
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> live = compareChild(reader, comparisons, index++, live);
+                case XMLStreamConstants.COMMENT -> live = compareValue(comparisons, ValueKind.COMMENT, reader.getText(), index++, live);
+                case XMLStreamConstants.PROCESSING_INSTRUCTION -> live = compareValue(comparisons, ValueKind.INSTRUCTION,
+                        instruction(reader.getPITarget(), reader.getPIData()), index++, live);
+                case XMLStreamConstants.END_ELEMENT -> {
+                    List<Map<String, Object>> results = new ArrayList<>(comparisons.size());
+                    for (Comparison comparison : comparisons) {
+                        results.add(comparison != null ? comparison.finish(index) : null);
+                    }
+                    return results;
+                }
+                default -> {
+                    // entity references are replaced by the reader; DTDs only precede the root
+                }
+            }
+        }
+        skipElement(reader);
+        List<Map<String, Object>> mismatches = new ArrayList<>(comparisons.size());
+        comparisons.forEach(comparison -> mismatches.add(null));
+        return mismatches;
+    }
+
+    /**
+     * Compares the actual child element {@code reader} is on with the expected children of
+     * the live comparisons that can still take it, all at once.
+     *
+     * @return the number of comparisons still live
+     */
+    private int compareChild(XMLStreamReader reader, List<Comparison> comparisons, int index, int live) throws XMLStreamException {
+        String name = reader.getLocalName();
+        List<ElementTemplate> candidates = new ArrayList<>();
+        for (Comparison comparison : comparisons) {
+            if (comparison != null) {
+                comparison.addCandidates(name, index, candidates);
+            }
+        }
+        if (candidates.isEmpty()) {
+            skipElement(reader);
+        }
+        List<Map<String, Object>> results = candidates.isEmpty() ? List.of() : match(reader, candidates);
+        for (int i = 0; i < comparisons.size(); i++) {
+            Comparison comparison = comparisons.get(i);
+            if (comparison != null && !comparison.element(name, index, candidates, results)) {
+                comparisons.set(i, null);
+                live--;
+            }
+        }
+        return live;
+    }
+
+    private static int compareValue(List<Comparison> comparisons, ValueKind kind, String value, int index, int live) {
+        for (int i = 0; i < comparisons.size(); i++) {
+            Comparison comparison = comparisons.get(i);
+            if (comparison != null && !comparison.value(kind, value, index)) {
+                comparisons.set(i, null);
+                live--;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Moves {@code reader} to the end of the element it is in.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        for (int depth = 1; depth > 0; ) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private Map<String, Object> matchAttributes(ElementTemplate expected, XMLStreamReader reader) {
+        int count = reader.getAttributeCount();
+        if (numAttributes && count != expected.attributeNames.length) {
+            return null;
+        }
+        Map<String, Object> captures = new HashMap<>();
+        for (int i = 0; i < expected.attributeNames.length; i++) {
+            String actual = attributeValue(reader, count, expected.attributeNames[i]);
+            if (actual == null) {
+                return null;
+            }
+            Map<String, Object> matched = matchValue(expected.attributeValues[i], actual, expected.path);
+            if (matched == null) {
+                return null;
+            }
+            captures.putAll(matched);
+        }
+        return captures;
+    }
+
+    private static String attributeValue(XMLStreamReader reader, int count, String name) {
+        for (int i = 0; i < count; i++) {
+            String prefix = reader.getAttributePrefix(i);
+            String localName = reader.getAttributeLocalName(i);
+            if (name.equals(prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName)) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Object> matchValue(String expected, String actual, String path) {
+        try {
+            MatchOutcome outcome = new StringMatcher(null, expected, actual, matchConditions).tryMatch();
+            return outcome.matched() ? outcome.properties() : null;
+        } catch (InvalidTypeException e) {
+            return null;
+        } catch (RegexBudgetExceededException e) {
+            throw e.atPath(path);
+        }
+    }
+
+    private static String instruction(String target, String data) {
+        return data == null || data.isEmpty() ? target : target + " " + data;
+    }
+
+    private enum ValueKind {
+        TEXT, COMMENT, INSTRUCTION
+    }
+
+    /**
+     * Expected element: its attributes, and its children stripped of whitespace-only text, as
+     * {@code XmlMatcher} compares them.
+     */
+    private static final class ElementTemplate {
+        private final String name;
+        private final String path;
+        private final String[] attributeNames;
+        private final String[] attributeValues;
+        private final ElementTemplate[] children;
+        /** Child element at each position among all children, or -1 for a value. */
+        private final int[] childAtIndex;
+        private final Map<String, int[]> childrenByName = new HashMap<>();
+        private final ValueKind[] valueKinds;
+        private final String[] values;
+        /** Value at each position among all children, or -1 for a child element. */
+        private final int[] valueAtIndex;
+        private final int childCount;
+
+        private ElementTemplate(Node element, String path) {
+            this.name = element.getNodeName();
+            this.path = path;
+            NamedNodeMap attributes = element.getAttributes();
+            this.attributeNames = new String[attributes.getLength()];
+            this.attributeValues = new String[attributes.getLength()];
+            for (int i = 0; i < attributes.getLength(); i++) {
+                attributeNames[i] = attributes.item(i).getNodeName();
+                attributeValues[i] = attributes.item(i).getNodeValue();
+            }
+            List<ElementTemplate> elements = new ArrayList<>();
+            List<ValueKind> kinds = new ArrayList<>();
+            List<String> texts = new ArrayList<>();
+            List<Integer> childAt = new ArrayList<>();
+            List<Integer> valueAt = new ArrayList<>();
+            SiblingIndex siblings = SiblingIndex.of(element);
+            Map<String, List<Integer>> byName = new LinkedHashMap<>();
+            int index = 0;
+            StringBuilder text = null;
+            for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+                short type = child.getNodeType();
+                if (type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE) {
+                    text = text != null ? text : new StringBuilder();
+                    text.append(child.getNodeValue());
+                    if (child.getNextSibling() != null) {
+                        continue;
+                    }
+                }
+                if (text != null) {
+                    String value = text.toString().trim();
+                    text = null;
+                    if (!value.isEmpty()) {
+                        childAt.add(-1);
+                        valueAt.add(texts.size());
+                        kinds.add(ValueKind.TEXT);
+                        texts.add(value);
+                        index++;
+                    }
+                }
+                if (type == Node.ELEMENT_NODE) {
+                    int ordinal = elements.size();
+                    int sibling = siblings.indexOf(child);
+                    String childPath = path + "/" + child.getNodeName()
+                            + (siblings.count(sibling) > 1 ? "[" + siblings.position(sibling) + "]" : "");
+                    childAt.add(ordinal);
+                    valueAt.add(-1);
+                    elements.add(new ElementTemplate(child, childPath));
+                    index++;
+                    byName.computeIfAbsent(child.getNodeName(), n -> new ArrayList<>()).add(ordinal);
+                } else if (type == Node.COMMENT_NODE) {
+                    childAt.add(-1);
+                    valueAt.add(texts.size());
+                    kinds.add(ValueKind.COMMENT);
+                    texts.add(child.getNodeValue());
+                    index++;
+                } else if (type == Node.PROCESSING_INSTRUCTION_NODE) {
+                    childAt.add(-1);
+                    valueAt.add(texts.size());
+                    kinds.add(ValueKind.INSTRUCTION);
+                    texts.add(instruction(child.getNodeName(), child.getNodeValue()));
+                    index++;
+                }
+            }
+            this.children = elements.toArray(new ElementTemplate[0]);
+            this.childAtIndex = childAt.stream().mapToInt(Integer::intValue).toArray();
+            byName.forEach((childName, ordinals) -> childrenByName.put(childName, ordinals.stream().mapToInt(Integer::intValue).toArray()));
+            this.valueKinds = kinds.toArray(new ValueKind[0]);
+            this.values = texts.toArray(new String[0]);
+            this.valueAtIndex = valueAt.stream().mapToInt(Integer::intValue).toArray();
+            this.childCount = index;
+        }
+    }
+
+    /**
+     * Comparison of one actual element with one expected element, fed with the children of the
+     * actual element as they are read.
+     */
+    private final class Comparison {
+        private final ElementTemplate expected;
+        private final Map<String, Object> captures;
+        /** Values matched so far, per kind. */
+        private final int[] valuesMatched = new int[ValueKind.values().length];
+        /** Actual child holding each expected child, or {@code null}. */
+        private final Holder[] holders;
+
+        private Comparison(ElementTemplate expected, Map<String, Object> captures) {
+            this.expected = expected;
+            this.captures = captures;
+            this.holders = new Holder[expected.children.length];
+        }
+
+        /**
+         * Adds the expected children that could take an actual child named {@code name}, at
+         * {@code index}, unless already in {@code candidates}.
+         */
+        private void addCandidates(String name, int index, List<ElementTemplate> candidates) {
+            if (sequence) {
+                int child = childAt(index);
+                if (child >= 0 && expected.children[child].name.equals(name)) {
+                    addCandidate(expected.children[child], candidates);
+                }
+                return;
+            }
+            int[] sameNamed = expected.childrenByName.get(name);
+            if (sameNamed == null || !hasFreeChild(sameNamed)) {
+                // an actual child can only take the place of another if one of them is free
+                return;
+            }
+            for (int child : sameNamed) {
+                addCandidate(expected.children[child], candidates);
+            }
+        }
+
+        private void addCandidate(ElementTemplate candidate, List<ElementTemplate> candidates) {
+            for (ElementTemplate added : candidates) {
+                if (added == candidate) {
+                    return;
+                }
+            }
+            candidates.add(candidate);
+        }
+
+        private boolean hasFreeChild(int[] children) {
+            for (int child : children) {
+                if (holders[child] == null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int childAt(int index) {
+            return index < expected.childCount ? expected.childAtIndex[index] : -1;
+        }
+
+        /**
+         * Takes the outcome of comparing an actual child element with {@code candidates}.
+         *
+         * @return {@code false} if the actual element cannot match {@link #expected} anymore
+         */
+        private boolean element(String name, int index, List<ElementTemplate> candidates, List<Map<String, Object>> results) {
+            if (sequence) {
+                int child = childAt(index);
+                if (child < 0) {
+                    // an extra actual child, after the expected ones, or in place of an expected value
+                    return index >= expected.childCount;
+                }
+                if (!expected.children[child].name.equals(name)) {
+                    return false;
+                }
+                Map<String, Object> matched = results.get(indexOf(candidates, expected.children[child]));
+                if (matched == null) {
+                    return false;
+                }
+                Holder holder = new Holder(expected.children.length);
+                holder.captures.set(child, matched);
+                holders[child] = holder;
+                return true;
+            }
+            int[] sameNamed = expected.childrenByName.get(name);
+            if (sameNamed == null || candidates.isEmpty()) {
+                return true;
+            }
+            Holder holder = null;
+            for (int child : sameNamed) {
+                int candidate = indexOf(candidates, expected.children[child]);
+                if (candidate >= 0 && results.get(candidate) != null) {
+                    holder = holder != null ? holder : new Holder(expected.children.length);
+                    holder.captures.set(child, results.get(candidate));
+                }
+            }
+            if (holder != null) {
+                assign(holder, sameNamed, new boolean[expected.children.length]);
+            }
+            return true;
+        }
+
+        /**
+         * Finds {@code holder} an expected child, preferring a free one and otherwise moving
+         * the holder of a taken one to another (Kuhn's augmenting paths). An actual child that
+         * gets none is dropped: it can never be on a later augmenting path.
+         */
+        private boolean assign(Holder holder, int[] sameNamed, boolean[] visited) {
+            for (int child : sameNamed) {
+                if (holder.captures.get(child) != null && holders[child] == null) {
+                    holders[child] = holder;
+                    return true;
+                }
+            }
+            for (int child : sameNamed) {
+                if (holder.captures.get(child) != null && !visited[child]) {
+                    visited[child] = true;
+                    if (assign(holders[child], sameNamed, visited)) {
+                        holders[child] = holder;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Takes an actual text, comment or processing instruction.
+         *
+         * @return {@code false} if the actual element cannot match {@link #expected} anymore
+         */
+        private boolean value(ValueKind kind, String value, int index) {
+            int expectedValue = -1;
+            if (sequence) {
+                expectedValue = index < expected.childCount ? expected.valueAtIndex[index] : -1;
+                if (expectedValue < 0) {
+                    return index >= expected.childCount;
+                }
+                if (expected.valueKinds[expectedValue] != kind) {
+                    return false;
+                }
+            } else {
+                for (int i = 0, seen = 0; i < expected.valueKinds.length && expectedValue < 0; i++) {
+                    if (expected.valueKinds[i] == kind && seen++ == valuesMatched[kind.ordinal()]) {
+                        expectedValue = i;
+                    }
+                }
+                if (expectedValue < 0) {
+                    return true;
+                }
+            }
+            valuesMatched[kind.ordinal()]++;
+            if (kind != ValueKind.TEXT) {
+                return expected.values[expectedValue].equals(value);
+            }
+            Map<String, Object> matched = matchValue(expected.values[expectedValue], value, expected.path);
+            if (matched == null) {
+                return false;
+            }
+            captures.putAll(matched);
+            return true;
+        }
+
+        /**
+         * @param childCount number of children of the actual element
+         * @return the values captured by the whole comparison, or {@code null} if some expected
+         * child was not matched
+         */
+        private Map<String, Object> finish(int childCount) {
+            if (length && childCount != expected.childCount) {
+                return null;
+            }
+            for (ValueKind kind : ValueKind.values()) {
+                int count = 0;
+                for (ValueKind valueKind : expected.valueKinds) {
+                    count += valueKind == kind ? 1 : 0;
+                }
+                if (valuesMatched[kind.ordinal()] < count) {
+                    return null;
+                }
+            }
+            for (int child = 0; child < holders.length; child++) {
+                if (holders[child] == null) {
+                    return null;
+                }
+                captures.putAll(holders[child].captures.get(child));
+            }
+            return captures;
+        }
+    }
+
+    private static int indexOf(List<ElementTemplate> candidates, ElementTemplate candidate) {
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidates.get(i) == candidate) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Actual child element that matched some of the expected children, with the values
+     * captured by matching each of them.
+     */
+    private static final class Holder {
+        private final List<Map<String, Object>> captures;
+
+        private Holder(int expectedChildren) {
+            this.captures = new ArrayList<>(Collections.nCopies(expectedChildren, null));
+        }
+    }
+}
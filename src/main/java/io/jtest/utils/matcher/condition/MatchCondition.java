@@ -76,5 +76,11 @@ public enum MatchCondition {
      * Useful when the expected value contains regex metacharacters that should be
      * treated as plain text.
      */
-    REGEX_DISABLED
+    REGEX_DISABLED,
+    /**
+     * Compare large JSON trees on several cores: large sibling objects and arrays, and the
+     * candidates for the elements of large arrays, are compared as fork/join tasks. Does not
+     * change the outcome of the match or the captured values.
+     */
+    JSON_PARALLEL
 }
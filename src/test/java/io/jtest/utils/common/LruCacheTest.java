@@ -0,0 +1,54 @@
+package io.jtest.utils.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LruCacheTest {
+
+    @Test
+    public void testHitsAndMisses() {
+        LruCache<String, String> cache = new LruCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("A", cache.get("a", k -> { loads.incrementAndGet(); return k.toUpperCase(); }));
+        assertEquals("A", cache.get("a", k -> { loads.incrementAndGet(); return k.toUpperCase(); }));
+        assertEquals(1, loads.get());
+        LruCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.get("a", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+        assertEquals(1, cache.stats().evictions());
+        cache.get("a", String::toUpperCase);
+        assertEquals(2, cache.stats().hits());
+        cache.get("b", String::toUpperCase);
+        assertEquals(4, cache.stats().misses());
+    }
+
+    @Test
+    public void testResizeAndDisable() {
+        LruCache<String, String> cache = new LruCache<>(5);
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+        cache.setMaxSize(1);
+        assertEquals(1, cache.stats().size());
+        assertEquals(2, cache.stats().evictions());
+        cache.setMaxSize(0);
+        cache.get("c", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+        assertEquals(0, cache.stats().size());
+        assertEquals(0, cache.stats().hits());
+        assertThrows(IllegalArgumentException.class, () -> cache.setMaxSize(-1));
+    }
+}
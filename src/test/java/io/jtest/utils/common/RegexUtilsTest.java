@@ -4,7 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class RegexUtilsTest {
 
@@ -18,4 +18,16 @@ public class RegexUtilsTest {
     public void testNullStringContainsSpecialRegexCharacters() {
         assertEquals(Collections.emptyList(), RegexUtils.getRegexCharsFromString(null));
     }
+
+    @Test
+    public void testIsLiteral() {
+        assertTrue(RegexUtils.isLiteral("order-42 } ] done"));
+        assertTrue(RegexUtils.isLiteral(""));
+        assertTrue(RegexUtils.isLiteral(null));
+        assertFalse(RegexUtils.isLiteral("order-\\d+"));
+        assertFalse(RegexUtils.isLiteral("~[id]"));
+        for (String specialChar : RegexUtils.specialRegexCharacters) {
+            assertEquals(RegexUtils.getRegexCharsFromString("a" + specialChar).isEmpty(), RegexUtils.isLiteral("a" + specialChar));
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package io.jtest.utils.common;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+
+/**
+ * Compares the cost of parsing an XML string with a document builder created for the parse, as
+ * {@link XmlUtils#toNode(String)} used to, and with {@link XmlUtils#toNode(String)}, which
+ * reuses a per-thread builder; and the cost of checking well-formedness by building the DOM, as
+ * {@link XmlUtils#isValid(String)} used to, and with {@link XmlUtils#isValid(String)}, which
+ * builds none. Skipped in a normal build; run it with
+ * {@code mvn test -Dtest=XmlParseBenchmark -Dbenchmark=true}.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class XmlParseBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 100_000;
+
+    @Test
+    public void parseXml() throws Exception {
+        String small = "<response><status>OK</status><id>42</id></response>";
+        StringBuilder large = new StringBuilder("<items>");
+        for (int i = 0; i < 100; i++) {
+            large.append("<item id=\"").append(i).append("\"><name>item ").append(i).append("</name></item>");
+        }
+        String medium = large.append("</items>").toString();
+
+        for (String xml : new String[]{small, medium}) {
+            System.out.printf("%d chars: new builder per parse %,d ns, pooled builder %,d ns%n", xml.length(),
+                    nanosPerRound(xml, XmlParseBenchmark::parseWithNewBuilder),
+                    nanosPerRound(xml, s -> XmlUtils.toNode(s).getChildNodes().getLength()));
+            System.out.printf("%d chars: well-formedness through the DOM %,d ns, through SAX %,d ns%n", xml.length(),
+                    nanosPerRound(xml, s -> XmlUtils.toNode(s) != null ? 1 : 0),
+                    nanosPerRound(xml, s -> XmlUtils.isValid(s) ? 1 : 0));
+        }
+    }
+
+    private static int parseWithNewBuilder(String xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(xml)))
+                .getDocumentElement().getChildNodes().getLength();
+    }
+
+    private static long nanosPerRound(String xml, Round round) throws Exception {
+        int checksum = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            checksum += round.run(xml);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            checksum += round.run(xml);
+        }
+        long nanos = (System.nanoTime() - start) / MEASURED_ROUNDS;
+        if (checksum == 0) {
+            throw new IllegalStateException("nothing parsed");
+        }
+        return nanos;
+    }
+
+    private interface Round {
+        /**
+         * @return a number depending on the outcome, for the work not to be optimized away
+         */
+        int run(String xml) throws Exception;
+    }
+}
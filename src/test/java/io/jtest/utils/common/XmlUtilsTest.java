@@ -1,11 +1,20 @@
 package io.jtest.utils.common;
 
 import org.junit.jupiter.api.Test;
+import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +35,15 @@ public class XmlUtilsTest {
         assertFalse(XmlUtils.isValid(xml));
     }
 
+    @Test
+    public void testXmlValidityIsCheckedAgainAfterAFailure() {
+        for (int i = 0; i < 3; i++) {
+            assertFalse(XmlUtils.isValid("<a><b></a>"));
+            assertFalse(XmlUtils.isValid(""));
+            assertTrue(XmlUtils.isValid("<a><b/></a>"));
+        }
+    }
+
     @Test
     public void testXmlsAreValid() {
         assertTrue(XmlUtils.isValid("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><a>test<b>test</b></a>"));
@@ -59,9 +77,81 @@ public class XmlUtilsTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    public void testXmlPathsOfInterleavedListElements() throws IOException, SAXException, ParserConfigurationException {
+        Map<String, String> result = XmlUtils.walkXmlAndProcessNodes(
+                XmlUtils.toNode("<a><b>1</b><c>x</c><b>2</b><!-- d --><b k=\"v\">3</b></a>"), Function.identity());
+        assertEquals(Map.of("/a", "a", "/a/b[1]", "b", "/a/b[1]/{val}", "1", "/a/c", "c", "/a/c/{val}", "x",
+                "/a/b[2]", "b", "/a/b[2]/{val}", "2", "/a/b[3]", "b", "/a/b[3]{attr:k}", "v", "/a/b[3]/{val}", "3"), result);
+    }
+
     @Test
     public void testToString() throws ParserConfigurationException, IOException, SAXException, TransformerException {
         assertTrue(XmlUtils.toString(XmlUtils.toNode("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><a>test<b>test</b></a>"))
                 .matches("(?s).*<a>.*test.*<b>.*test.*</b>.*</a>.*"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testToStringOfIndentedXmlHasNoBlankLines() throws ParserConfigurationException, IOException, SAXException, TransformerException {
+        Node xml = XmlUtils.toNode("""
+                <r xmlns:p="urn:x">
+
+                  <p:a k="v">t</p:a>
+                  <b>
+                     <c/>
+                  </b>
+                </r>""");
+        String expected = String.join(System.lineSeparator(), "<r xmlns:p=\"urn:x\">", "    <p:a k=\"v\">t</p:a>",
+                "    <b>", "        <c/>", "    </b>", "</r>", "");
+        assertEquals(expected, XmlUtils.toString(xml));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        XmlUtils.write(xml, bytes);
+        assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testToStringKeepsWhitespaceOnlyContent() throws ParserConfigurationException, IOException, SAXException, TransformerException {
+        assertEquals(String.join(System.lineSeparator(), "<r>", "    <a> </a>", "    <b/>", "</r>", ""),
+                XmlUtils.toString(XmlUtils.toNode("<r>\n  <a> </a>\n  <b/>\n</r>")));
+        assertEquals("<a> </a>" + System.lineSeparator(), XmlUtils.toString(XmlUtils.toNode("<a> </a>")));
+    }
+
+    @Test
+    public void testToStringOfMixedContentIsUnchanged() throws Exception {
+        String[] xmls = {
+                "<p>Hello <b>world</b> and <i>you</i> </p>",
+                "<p>\n  Hello\n  <b>world</b>\n  <i>x</i>\n</p>",
+                "<a>t<b/>\n\n   \n<c/>u</a>",
+                "<root>\n  <p>Some <b>bold</b> <i>italic</i> text</p>\n  <q> </q>\n</root>",
+                "<doc>\n <para>The <em>quick</em>\n   <em>brown</em> fox<![CDATA[ \n ]]></para>\n <!-- c -->\n <?pi data?>\n</doc>",
+                "<p:r xmlns:p=\"urn:x\">\n  <p:a>x <p:b k=\"v\"/>\n\ty</p:a>\n</p:r>"};
+        for (String xml : xmls) {
+            Node node = XmlUtils.toNode(xml);
+            // as XmlUtils.toString used to serialize: blank lines removed from the whole output
+            StringWriter baseline = new StringWriter();
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.transform(new DOMSource(node), new StreamResult(baseline));
+            String expected = baseline.toString().replaceAll("(?m)^[ \t]*\r?\n", "");
+
+            assertEquals(expected, XmlUtils.toString(node), xml);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            XmlUtils.write(node, bytes);
+            assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), bytes.toByteArray(), xml);
+        }
+    }
+
+    @Test
+    public void testBlankLineFilterDropsWhatTheRegexDid() throws IOException {
+        String[] texts = {"", " ", "\n", " \t\n", "a\n\n b\n  \n", "a\r\n \r\nb", "a\r \r\n\r\r\nb",
+                " \r x", "a\u2028 \nb\u0085\n", "\r\n\r\n", "a\n  "};
+        for (String text : texts) {
+            StringWriter filtered = new StringWriter();
+            BlankLineFilterWriter writer = new BlankLineFilterWriter(filtered);
+            writer.write(text);
+            writer.finish();
+            assertEquals(text.replaceAll("(?m)^[ \t]*\r?\n", ""), filtered.toString(), text);
+        }
+    }
+}
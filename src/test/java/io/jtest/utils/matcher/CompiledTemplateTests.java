@@ -0,0 +1,96 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.matcher.condition.MatchCondition;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledTemplateTests {
+
+    @Test
+    public void matchCompiledJson() {
+        CompiledTemplate template = ObjectMatcher.compileJson("{\"id\":\"~[id]\",\"tags\":[\"a\",\"b\"]}");
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> props = template.match("{\"id\":\"id-" + i + "\",\"tags\":[\"b\",\"a\"],\"extra\":1}");
+            assertEquals("id-" + i, props.get("id"));
+        }
+        assertThrows(AssertionError.class, () -> template.match("{\"id\":\"x\",\"tags\":[\"b\"]}"));
+    }
+
+    @Test
+    public void matchCompiledJsonWithConditions() {
+        CompiledTemplate template = ObjectMatcher.compileJson("{\"a\":1}", MatchCondition.JSON_NON_EXTENSIBLE_OBJECT);
+        template.match("{\"a\":1}");
+        assertThrows(AssertionError.class, () -> template.match("{\"a\":1,\"b\":2}"));
+        ObjectMatcher.compileJson("{\"a\":1}", MatchCondition.DO_NOT_MATCH).match("{\"a\":2}");
+    }
+
+    @Test
+    public void compileInvalidJson() {
+        assertThrows(RuntimeException.class, () -> ObjectMatcher.compileJson("{\"a\":"));
+    }
+
+    @Test
+    public void matchCompiledXml() {
+        CompiledTemplate template = ObjectMatcher.compileXml("<a id=\"~[id]\"><b>~[b]</b></a>");
+        Map<String, Object> props = template.match("<a id=\"42\"><c/><b>text</b></a>");
+        assertEquals("42", props.get("id"));
+        assertEquals("text", props.get("b"));
+        assertThrows(AssertionError.class, () -> template.match("<a id=\"42\"><c/></a>"));
+    }
+
+    @Test
+    public void matchCompiledXmlStream() {
+        CompiledTemplate template = ObjectMatcher.compileXmlStream("<a id=\"~[id]\"><b>~[b]</b><b>2</b></a>",
+                MatchCondition.XML_ELEMENT_NUM_ATTRIBUTES);
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> props = template.match(new StringReader("<a id=\"" + i + "\"><c/><b>2</b><b>3</b></a>"));
+            assertEquals(String.valueOf(i), props.get("id"));
+            assertEquals("3", props.get("b"));
+        }
+        assertThrows(AssertionError.class, () -> template.match("<a id=\"42\" k=\"v\"><b>1</b><b>2</b></a>"));
+    }
+
+    @Test
+    public void matchCompiledString() {
+        CompiledTemplate template = ObjectMatcher.compileString("code: ~[code], \\d+ ms");
+        assertEquals("200", template.match("code: 200, 15 ms").get("code"));
+        assertEquals(10, ObjectMatcher.compileString("~[all]").match(10).get("all"));
+        AssertionError error = assertThrows(AssertionError.class, () -> template.match("some msg", "code: 200"));
+        assertTrue(error.getMessage().contains("some msg"));
+        ObjectMatcher.compileString("a.c", MatchCondition.REGEX_DISABLED, MatchCondition.DO_NOT_MATCH).match("abc");
+    }
+
+    @Test
+    public void matchCompiledTemplatesConcurrently() throws Exception {
+        CompiledTemplate json = ObjectMatcher.compileJson("{\"id\":\"~[id]\",\"items\":[{\"n\":\"~[n]\"}]}");
+        CompiledTemplate xml = ObjectMatcher.compileXml("<r><id>~[id]</id><item n=\"~[n]\"/></r>");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        String id = thread + "-" + i;
+                        assertEquals(id, json.match("{\"id\":\"" + id + "\",\"items\":[{\"n\":\"" + i + "\"}]}").get("id"));
+                        assertEquals(id, xml.match("<r><item n=\"" + i + "\"/><id>" + id + "</id></r>").get("id"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
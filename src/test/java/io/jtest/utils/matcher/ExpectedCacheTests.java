@@ -0,0 +1,69 @@
+package io.jtest.utils.matcher;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jtest.utils.common.LruCache;
+import io.jtest.utils.exceptions.InvalidTypeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.w3c.dom.Node;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// tests resize the process-wide cache
+@ResourceLock("ExpectedCache")
+public class ExpectedCacheTests {
+
+    @Test
+    public void testExpectedJsonIsParsedOnce() throws Exception {
+        String expected = "{\"id\":\"" + UUID.randomUUID() + "\",\"items\":[{\"n\":\"~[n]\"}]}";
+        int maxSize = ExpectedCache.getMaxSize();
+        ExpectedCache.setMaxSize(16);
+        try {
+            LruCache.Stats before = ExpectedCache.stats();
+            for (int i = 0; i < 10; i++) {
+                String actual = expected.replace("~[n]", String.valueOf(i));
+                Map<String, Object> props = ObjectMatcher.matchJson(null, expected, actual);
+                assertEquals(String.valueOf(i), props.get("n"));
+            }
+            LruCache.Stats after = ExpectedCache.stats();
+            assertTrue(after.hits() - before.hits() >= 9);
+            assertEquals(new ObjectMapper().readTree(expected), ExpectedCache.json(expected));
+        } finally {
+            ExpectedCache.setMaxSize(maxSize);
+        }
+    }
+
+    @Test
+    public void testEachXmlMatchGetsItsOwnCopy() throws Exception {
+        String expected = "<a id=\"" + UUID.randomUUID() + "\"><b>~[b]</b></a>";
+        int maxSize = ExpectedCache.getMaxSize();
+        ExpectedCache.setMaxSize(16);
+        try {
+            Node first = ExpectedCache.xml(expected);
+            Node second = ExpectedCache.xml(expected);
+            assertNotSame(first, second);
+            assertNotSame(first.getOwnerDocument(), second.getOwnerDocument());
+            assertTrue(first.isEqualNode(second));
+            first.getFirstChild().setTextContent("changed");
+            assertEquals("x", ObjectMatcher.matchXml(null, expected, expected.replace("~[b]", "x")).get("b"));
+        } finally {
+            ExpectedCache.setMaxSize(maxSize);
+        }
+    }
+
+    @Test
+    public void testInvalidExpectedIsRejectedWhenCached() {
+        String expected = "{\"id\":" + UUID.randomUUID();
+        int maxSize = ExpectedCache.getMaxSize();
+        ExpectedCache.setMaxSize(16);
+        try {
+            assertThrows(InvalidTypeException.class, () -> ExpectedCache.json(expected));
+            assertThrows(InvalidTypeException.class, () -> ExpectedCache.json(expected));
+        } finally {
+            ExpectedCache.setMaxSize(maxSize);
+        }
+    }
+}
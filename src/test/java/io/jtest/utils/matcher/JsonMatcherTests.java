@@ -7,7 +7,13 @@ import io.jtest.utils.exceptions.InvalidTypeException;
 import io.jtest.utils.matcher.condition.MatchCondition;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -163,10 +169,18 @@ public class JsonMatcherTests {
     }
 
     @Test
-    public void compareJsonArrayWithAssignSymbols_negative() throws InvalidTypeException {
+    public void compareJsonArrayWithAssignSymbolsNeedingReassignment() throws InvalidTypeException {
         String expected = "{\"b\":\"val1\",\"a\":[\"~[sym1]\",2,3,5]}";
         String actual = "{\"a\":[5,4,3,2,1],\"b\":\"val1\"}";
         JsonMatcher matcher = new JsonMatcher(null, expected, actual, null);
+        assertEquals("4", matcher.match().get("sym1"));
+    }
+
+    @Test
+    public void compareJsonArrayWithAssignSymbols_negative() throws InvalidTypeException {
+        String expected = "{\"b\":\"val1\",\"a\":[\"~[sym1]\",2,3,6]}";
+        String actual = "{\"a\":[5,4,3,2,1],\"b\":\"val1\"}";
+        JsonMatcher matcher = new JsonMatcher(null, expected, actual, null);
         assertThrows(AssertionError.class, matcher::match);
     }
 
@@ -475,4 +489,107 @@ public class JsonMatcherTests {
 
         assertThrows(AssertionError.class, () -> new JsonMatcher(null, expected, actual, null).match());
     }
+
+    @Test
+    public void matchLargeActualJsonStream() throws InvalidTypeException {
+        StringBuilder actual = new StringBuilder("{\"meta\":{\"blob\":\"").append("x".repeat(100_000))
+                .append("\"},\"data\":{\"items\":[");
+        for (int i = 0; i < 5_000; i++) {
+            actual.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"tags\":[\"a\",\"b\"],\"extra\":{\"n\":")
+                    .append(i).append("}}");
+        }
+        String json = actual.append("]},\"status\":\"OK\"}").toString();
+
+        String expected = "{\"status\":\"~[status]\",\"data\":{\"items\":[{\"id\":4242,\"extra\":{\"n\":\"~[n]\"}}]}}";
+        Map<String, Object> props = new JsonMatcher(null, expected,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), null).match();
+        assertEquals("OK", props.get("status"));
+        assertEquals("4242", props.get("n"));
+
+        assertThrows(AssertionError.class, () -> new JsonMatcher(null, "{\"data\":{\"items\":[{\"id\":5000}]}}",
+                new StringReader(json), null).match());
+        assertThrows(AssertionError.class, () -> new JsonMatcher(null, "{\"status\":\"OK\"}", new StringReader(json),
+                new HashSet<>(Collections.singletonList(MatchCondition.JSON_NON_EXTENSIBLE_OBJECT))).match());
+        assertThrows(AssertionError.class, () -> new JsonMatcher(null, "{\"status\":\"OK\",\"!meta\":\".*\"}",
+                new StringReader(json), null).match());
+    }
+
+    @Test
+    public void tellWhetherJsonsMatchWithoutDiff() {
+        assertTrue(ObjectMatcher.jsonMatches("{\"status\":\"DONE|FAILED\",\"~[k]\":1}", "{\"status\":\"DONE\",\"id\":1}"));
+        assertFalse(ObjectMatcher.jsonMatches("{\"status\":\"DONE\"}", "{\"status\":\"RUNNING\"}"));
+        assertFalse(ObjectMatcher.jsonMatches("[1,2]", "[2,1]", MatchCondition.JSON_STRICT_ORDER_ARRAY));
+        assertTrue(ObjectMatcher.jsonMatches("[1,2]", "[2,1]", MatchCondition.JSON_STRICT_ORDER_ARRAY, MatchCondition.DO_NOT_MATCH));
+        assertFalse(ObjectMatcher.jsonMatches("{\"a\":1}", "{\"a\":1}", MatchCondition.DO_NOT_MATCH));
+        assertThrows(RuntimeException.class, () -> ObjectMatcher.jsonMatches("{\"a\":1}", "{a:"));
+    }
+
+    @Test
+    public void matchJsonAtPointers() {
+        String actual = "{\"meta\":{\"a/b\":[1]},\"data\":{\"items\":[{\"id\":0},{\"id\":1,\"name\":\"x\"}]},\"status\":\"OK\"}";
+        assertEquals("x", ObjectMatcher.matchJsonAt(null, "{\"name\":\"~[name]\"}", actual, "/data/items/1").get("name"));
+        Map<String, Object> props = ObjectMatcher.matchJsonAt(null, Map.of("/status", "\"~[status]\"", "/meta/a~1b", "[1]",
+                "/data", "{\"items\":[{\"id\":\"~[id]\"}]}"), new StringReader(actual));
+        assertEquals("OK", props.get("status"));
+        assertEquals("0", props.get("id"));
+
+        assertThrows(AssertionError.class, () -> ObjectMatcher.matchJsonAt(null, "{\"id\":0}", actual, "/data/items/1"));
+        AssertionError missing = assertThrows(AssertionError.class, () -> ObjectMatcher.matchJsonAt("Item",
+                "{}", new StringReader(actual), "/data/items/2"));
+        assertTrue(missing.getMessage().contains("/data/items/2"));
+        assertTrue(ObjectMatcher.matchJsonAt(null, "{}", actual, "/data/items/2", MatchCondition.DO_NOT_MATCH).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> ObjectMatcher.matchJsonAt(null, "{}", actual, "data"));
+
+        // the stream is not read past the last value matched
+        String truncated = "{\"data\":{\"items\":[{\"id\":0},{\"id\":1}],\"more\":[";
+        assertEquals("1", ObjectMatcher.matchJsonAt(null, Map.of("/data/items/1/id", "\"~[id]\"", "/data/items/0", "{}"),
+                new StringReader(truncated)).get("id"));
+        assertThrows(RuntimeException.class, () -> ObjectMatcher.matchJsonAt(null, "{}", new StringReader(truncated), "/status"));
+    }
+
+    @Test
+    public void matchJsonGivenAsBytes() throws Exception {
+        String json = "{\"name\":\"Zoë\",\"tags\":[\"ä\",\"ß\"]}";
+        String expected = "{\"name\":\"~[name]\",\"tags\":[\"ß\"]}";
+        assertEquals("Zoë", ObjectMatcher.matchJson(null, expected, json.getBytes(StandardCharsets.UTF_8)).get("name"));
+        assertEquals("Zoë", ObjectMatcher.matchJson(null, expected.getBytes(StandardCharsets.UTF_16BE),
+                json.getBytes(StandardCharsets.UTF_16LE)).get("name"));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(64).put(json.getBytes(StandardCharsets.UTF_8)).flip();
+        assertEquals("Zoë", ObjectMatcher.matchJson(null, expected, direct).get("name"));
+        assertEquals("Zoë", ObjectMatcher.matchJson(null, expected, direct).get("name"));
+        ByteBuffer slice = ByteBuffer.wrap(("xx" + json).getBytes(StandardCharsets.UTF_8)).position(2);
+        assertEquals("Zoë", ObjectMatcher.matchJson(null, expected, slice).get("name"));
+
+        Path file = Files.createTempFile("actual", ".json");
+        try {
+            Files.writeString(file, json);
+            assertEquals("Zoë", ObjectMatcher.matchJson(null, expected, file).get("name"));
+            assertThrows(AssertionError.class, () -> ObjectMatcher.matchJson(null, "{\"name\":\"Zoe\"}", file));
+        } finally {
+            Files.delete(file);
+        }
+        assertThrows(RuntimeException.class, () -> ObjectMatcher.matchJson(null, new byte[0], json));
+    }
+
+    @Test
+    public void matchArrayElementsByAssignment() throws InvalidTypeException {
+        // first fit would give "~[x]" the 5, leaving the expected 5 without a match
+        JsonMatcher matcher = new JsonMatcher(null, "[\"~[x]\",2,3,5]", "[5,4,3,2,1]", null);
+        assertTrue(matcher.matches());
+        Map<String, Object> symbols = new JsonMatcher(null, "[\"~[x]\",2,3,5]", "[5,4,3,2,1]", null).match();
+        assertTrue(symbols.get("x").equals("4") || symbols.get("x").equals("1"));
+        assertFalse(new JsonMatcher(null, "[\"~[x]\",2,3,5]", "[5,3,2]", null).matches());
+    }
+
+    @Test
+    public void reportStreamedMismatchWithoutTheKeptParts() {
+        AssertionError error = assertThrows(AssertionError.class, () -> ObjectMatcher.matchJson("Order",
+                "{\"order\":{\"lines\":[{\"sku\":\"A\"}],\"total\":10}}",
+                new StringReader("{\"order\":{\"lines\":[{\"sku\":\"A\"}],\"total\":12,\"note\":\"n\"}}")));
+        assertTrue(error.getMessage().contains("Order"));
+        assertTrue(error.getMessage().contains("JSONs do not match"));
+        assertTrue(error.getMessage().contains("Mismatch at JSON Pointer \"/order/total\" of the expected JSON"));
+        assertTrue(error.getMessage().contains("<StringReader read as JSON>"));
+    }
 }
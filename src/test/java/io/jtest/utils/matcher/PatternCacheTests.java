@@ -0,0 +1,53 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.common.LruCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatternCacheTests {
+
+    @Test
+    public void testExpectedRegexIsCompiledOnce() {
+        String expected = "id-" + UUID.randomUUID() + "-\\d+";
+        LruCache.Stats before = PatternCache.stats();
+        for (int i = 0; i < 10; i++) {
+            ObjectMatcher.matchString(null, expected, expected.replace("\\d+", String.valueOf(i)));
+        }
+        LruCache.Stats after = PatternCache.stats();
+        assertTrue(after.hits() - before.hits() >= 9);
+    }
+
+    @Test
+    public void testCachedPatternsStillCapturePlaceholders() {
+        String expected = "order-" + UUID.randomUUID() + "-~[id]";
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> props = ObjectMatcher.matchString(null, expected, expected.replace("~[id]", "x" + i));
+            assertEquals("x" + i, props.get("id"));
+        }
+    }
+
+    @Test
+    public void testInvalidRegexFallsBackToLiteralMatchWhenCached() {
+        String expected = "(unclosed-" + UUID.randomUUID();
+        ObjectMatcher.matchString(null, expected, expected);
+        ObjectMatcher.matchString(null, expected, expected);
+        assertThrows(AssertionError.class, () -> ObjectMatcher.matchString(null, expected, "other"));
+    }
+
+    @Test
+    public void testRegexAndPlaceholderTemplateAreCachedApart() {
+        String expected = "ref-" + UUID.randomUUID() + "-.*";
+        Pattern regex = PatternCache.get(expected, ExpectedString.Kind.REGEX, ExpectedString.PATTERN_FLAGS, false,
+                () -> Pattern.compile(expected));
+        Pattern template = PatternCache.get(expected, ExpectedString.Kind.PLACEHOLDERS, ExpectedString.PATTERN_FLAGS, false,
+                () -> Pattern.compile(Pattern.quote(expected)));
+        assertNotSame(regex, template);
+        assertSame(regex, PatternCache.get(expected, ExpectedString.Kind.REGEX, ExpectedString.PATTERN_FLAGS, false,
+                () -> fail("cached pattern compiled again")));
+    }
+}
@@ -0,0 +1,122 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.exceptions.RegexBudgetExceededException;
+import io.jtest.utils.matcher.condition.MatchCondition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegexBudgetTests {
+
+    private static final String CATASTROPHIC_REGEX = "(.*a){6}x";
+    private static final String BACKTRACKING_INPUT = "a".repeat(100);
+
+    @Test
+    public void testNoBudgetByDefault() {
+        assertTrue(RegexBudget.UNLIMITED.isUnlimited());
+        assertFalse(RegexBudget.ofSteps(10).isUnlimited());
+        assertFalse(RegexBudget.ofTimeout(Duration.ofSeconds(1)).isUnlimited());
+    }
+
+    @Test
+    public void testInvalidBudgets() {
+        assertThrows(IllegalArgumentException.class, () -> RegexBudget.ofSteps(0));
+        assertThrows(IllegalArgumentException.class, () -> RegexBudget.ofTimeout(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> RegexBudget.ofSteps(1).withTimeout(Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    public void testStepBudgetAbortsBacktrackingRegex() {
+        try (RegexBudget.Scope ignored = RegexBudget.scoped(RegexBudget.ofSteps(100_000))) {
+            RegexBudgetExceededException e = assertThrows(RegexBudgetExceededException.class,
+                    () -> ObjectMatcher.matchString(null, CATASTROPHIC_REGEX, BACKTRACKING_INPUT));
+            assertEquals(CATASTROPHIC_REGEX, e.getExpected());
+            assertTrue(e.getMessage().contains("100000 steps"));
+        }
+    }
+
+    @Test
+    public void testTimeoutAbortsBacktrackingRegex() {
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            try (RegexBudget.Scope ignored = RegexBudget.scoped(RegexBudget.ofTimeout(Duration.ofMillis(50)))) {
+                assertThrows(RegexBudgetExceededException.class,
+                        () -> ObjectMatcher.matchString(null, CATASTROPHIC_REGEX, BACKTRACKING_INPUT));
+            }
+        });
+    }
+
+    @Test
+    public void testRegexWithinBudgetStillMatches() {
+        try (RegexBudget.Scope ignored = RegexBudget.scoped(RegexBudget.ofSteps(10_000).withTimeout(Duration.ofSeconds(5)))) {
+            Map<String, Object> props = ObjectMatcher.matchString(null, "id-\\d+ ~[name]", "id-42 Moon");
+            assertEquals("Moon", props.get("name"));
+            assertThrows(AssertionError.class, () -> ObjectMatcher.matchString(null, "id-\\d+", "id-x"));
+        }
+    }
+
+    @Test
+    public void testLiteralsAreNotLimited() {
+        String actual = "x".repeat(10_000);
+        try (RegexBudget.Scope ignored = RegexBudget.scoped(RegexBudget.ofSteps(10))) {
+            ObjectMatcher.matchString(null, actual, actual);
+            assertEquals(actual, ObjectMatcher.matchString(null, "<~[body]>", "<" + actual + ">").get("body"));
+        }
+    }
+
+    @Test
+    public void testScopeRestoresPreviousBudget() {
+        RegexBudget outer = RegexBudget.ofSteps(5);
+        try (RegexBudget.Scope ignored = RegexBudget.scoped(outer)) {
+            try (RegexBudget.Scope ignored2 = RegexBudget.scoped(RegexBudget.UNLIMITED)) {
+                assertTrue(RegexBudget.current().isUnlimited());
+            }
+            assertSame(outer, RegexBudget.current());
+        }
+        assertSame(RegexBudget.getGlobal(), RegexBudget.current());
+    }
+
+    @Test
+    public void testBudgetPerCall() {
+        RegexBudgetExceededException e = assertThrows(RegexBudgetExceededException.class,
+                () -> ObjectMatcher.matchString(null, CATASTROPHIC_REGEX, BACKTRACKING_INPUT, RegexBudget.ofSteps(100_000)));
+        assertTrue(e.getMessage().contains("100000 steps"));
+        assertSame(RegexBudget.getGlobal(), RegexBudget.current());
+        assertFalse(ObjectMatcher.jsonMatches("[\"" + CATASTROPHIC_REGEX + "\"]", "[\"b\"]", RegexBudget.ofSteps(100_000)));
+    }
+
+    @Test
+    public void testBudgetPerCallAppliesToForkedParts() {
+        String elements = String.join(",", Collections.nCopies(20, "{\"name\": \"" + BACKTRACKING_INPUT + "\"}"));
+        String expected = "{\"a\": [{\"name\": \"a+\"}], \"b\": [{\"name\": \"" + CATASTROPHIC_REGEX + "\"}]}";
+        String actual = "{\"a\": [" + elements + "], \"b\": [" + elements + "]}";
+        RegexBudgetExceededException e = assertThrows(RegexBudgetExceededException.class, () -> ObjectMatcher.matchJson(null,
+                expected, actual, RegexBudget.ofSteps(100_000), MatchCondition.JSON_PARALLEL));
+        assertTrue(e.getPath().startsWith("/b/0/name"), e.getPath());
+    }
+
+    @Test
+    public void testExceededBudgetReportsJsonPath() {
+        String expected = "{\"items\": [{\"id\": 1}, {\"name\": \"" + CATASTROPHIC_REGEX + "\"}]}";
+        String actual = "{\"items\": [{\"name\": \"" + BACKTRACKING_INPUT + "\"}, {\"id\": 1}]}";
+        CompiledTemplate template = ObjectMatcher.compileJson(expected);
+        try (RegexBudget.Scope ignored = RegexBudget.scoped(RegexBudget.ofSteps(100_000))) {
+            RegexBudgetExceededException e = assertThrows(RegexBudgetExceededException.class, () -> template.match(actual));
+            assertEquals("/items/1/name", e.getPath());
+        }
+    }
+
+    @Test
+    public void testExceededBudgetReportsXmlPath() {
+        String expected = "<a><b attr=\"" + CATASTROPHIC_REGEX + "\">x</b></a>";
+        String actual = "<a><b attr=\"" + BACKTRACKING_INPUT + "\">x</b></a>";
+        try (RegexBudget.Scope ignored = RegexBudget.scoped(RegexBudget.ofSteps(100_000))) {
+            RegexBudgetExceededException e = assertThrows(RegexBudgetExceededException.class,
+                    () -> ObjectMatcher.matchXml(null, expected, actual));
+            assertEquals("/a[1]/b[1]/@attr", e.getPath());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.jtest.utils.matcher;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringConvertersTests {
+
+    private enum State {
+        ACTIVE,
+        CLOSED {
+            @Override
+            public String toString() {
+                return "closed";
+            }
+        }
+    }
+
+    private enum Color {
+        RED("red");
+
+        private final String code;
+
+        Color(String code) {
+            this.code = code;
+        }
+
+        @JsonValue
+        public String code() {
+            return code;
+        }
+    }
+
+    private record Money(BigDecimal amount, String currency) {
+    }
+
+    @Test
+    public void testBuiltInConversions() {
+        UUID uuid = UUID.randomUUID();
+        assertEquals("text", StringConverters.toString("text"));
+        assertEquals("42", StringConverters.toString(42L));
+        assertEquals("100.50", StringConverters.toString(new BigDecimal("100.50")));
+        assertEquals("a", StringConverters.toString('a'));
+        assertEquals("true", StringConverters.toString(true));
+        assertEquals("builder", StringConverters.toString(new StringBuilder("builder")));
+        assertEquals(uuid.toString(), StringConverters.toString(uuid));
+        assertEquals("2026-10-18", StringConverters.toString(LocalDate.of(2026, 10, 18)));
+        assertEquals("PT2S", StringConverters.toString(Duration.ofSeconds(2)));
+        assertEquals("Europe/Paris", StringConverters.toString(ZoneId.of("Europe/Paris")));
+    }
+
+    @Test
+    public void testEnumsConvertLikeJackson() {
+        assertEquals("ACTIVE", StringConverters.toString(State.ACTIVE));
+        assertEquals("CLOSED", StringConverters.toString(State.CLOSED));
+        assertEquals("red", StringConverters.toString(Color.RED));
+    }
+
+    @Test
+    public void testScalarJsonNodes() {
+        assertEquals("some text", StringConverters.toString(new TextNode("some text")));
+        assertEquals("7", StringConverters.toString(new IntNode(7)));
+        assertEquals("1.5", StringConverters.toString(new DoubleNode(1.5)));
+        assertEquals("false", StringConverters.toString(BooleanNode.FALSE));
+    }
+
+    @Test
+    public void testRegisteredConverter() {
+        Money money = new Money(new BigDecimal("9.99"), "EUR");
+        StringConverters.register(Money.class, m -> m.amount().toPlainString() + " " + m.currency());
+        try {
+            assertEquals("9.99 EUR", StringConverters.toString(money));
+            assertEquals("EUR", ObjectMatcher.matchString(null, "\\d+\\.\\d+ ~[currency]", money).get("currency"));
+        } finally {
+            StringConverters.unregister(Money.class);
+        }
+        assertNotEquals("9.99 EUR", StringConverters.toString(money));
+    }
+}
@@ -11,6 +11,9 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -636,4 +639,92 @@ public class StringMatcherTests {
         Map<String, Object> props = new StringMatcher(null, 42, 42L, null).match();
         assertTrue(props.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void compareLiteralsWithoutRegexChars() throws InvalidTypeException {
+        assertTrue(new StringMatcher(null, "ACTIVE_ORDER-42 } ]", "ACTIVE_ORDER-42 } ]", null).match().isEmpty());
+        assertThrows(AssertionError.class, () -> new StringMatcher(null, "ACTIVE", "ACTIVE ", null).match());
+        assertThrows(AssertionError.class, () -> new StringMatcher(null, "ACTIVE", null, null).match());
+        assertTrue(new StringMatcher(null, "ACTIVE", "INACTIVE",
+                new HashSet<>(Collections.singletonList(MatchCondition.DO_NOT_MATCH))).match().isEmpty());
+    }
+
+    @Test
+    public void capturePlaceholdersFromLiteralTemplate() throws InvalidTypeException {
+        Map<String, Object> props = new StringMatcher(null, "id=~[id], name=~[name], id=~[id2]",
+                "id=1, name=a, id=b, id=2", null).match();
+        assertEquals("1", props.get("id"));
+        assertEquals("a, id=b", props.get("name"));
+        assertEquals("2", props.get("id2"));
+
+        props = new StringMatcher(null, "~[a]~[b]-~[c]", "x-y-z", null).match();
+        assertEquals("x-y", props.get("a"));
+        assertEquals("", props.get("b"));
+        assertEquals("z", props.get("c"));
+
+        props = new StringMatcher(null, "(~[a]) [~[b]]", "(x) [y]]",
+                new HashSet<>(Collections.singletonList(MatchCondition.REGEX_DISABLED))).match();
+        assertEquals("x", props.get("a"));
+        assertEquals("y]", props.get("b"));
+
+        assertThrows(AssertionError.class, () -> new StringMatcher(null, "ab~[a]ba", "aba", null).match());
+        assertThrows(AssertionError.class, () -> new StringMatcher(null, "a ~[a] b ~[b] c", "a 1 c 2 b", null).match());
+    }
+
+    @Test
+    public void capturePlaceholdersFromLiteralTemplateAgainstLongText() throws InvalidTypeException {
+        String actual = "x".repeat(200_000);
+        String expected = "~[a] ~[b] ~[c] ~[d] ~[e] ~[f] ~[g] ~[h] end";
+        assertThrows(AssertionError.class, () -> new StringMatcher(null, expected, actual, null).match());
+        Map<String, Object> props = new StringMatcher(null, expected, "1 2 3 4 5 6 7 " + actual + " end", null).match();
+        assertEquals(actual, props.get("h"));
+        assertEquals("1", props.get("a"));
+    }
+
+    @Test
+    public void capturePlaceholdersFromLiteralTemplateAsGreedyRegex() throws InvalidTypeException {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder expected = new StringBuilder(randomText(random, 3));
+            StringBuilder regex = new StringBuilder(expected);
+            int placeholders = 1 + random.nextInt(3);
+            for (int p = 0; p < placeholders; p++) {
+                String literal = randomText(random, 3);
+                expected.append("~[p").append(p).append("]").append(literal);
+                regex.append("(.*)").append(literal);
+            }
+            String actual = randomText(random, 12);
+            Matcher matcher = Pattern.compile(regex.toString(), Pattern.DOTALL).matcher(actual);
+            if (matcher.matches()) {
+                Map<String, Object> props = new StringMatcher(null, expected.toString(), actual, null).match();
+                for (int p = 0; p < placeholders; p++) {
+                    assertEquals(matcher.group(p + 1), props.get("p" + p), expected + " vs " + actual);
+                }
+            } else {
+                assertThrows(AssertionError.class, () -> new StringMatcher(null, expected.toString(), actual, null).match(),
+                        expected + " vs " + actual);
+            }
+        }
+    }
+
+    @Test
+    public void tryMatchReportsOutcomeWithoutThrowing() throws InvalidTypeException {
+        MatchOutcome outcome = new StringMatcher(null, "id-~[id]", "id-42", null).tryMatch();
+        assertTrue(outcome.matched());
+        assertEquals("42", outcome.properties().get("id"));
+        assertFalse(new StringMatcher(null, "id-\\d+", "id-x", null).tryMatch().matched());
+        assertFalse(new StringMatcher(null, null, "id-x", null).tryMatch().matched());
+        assertTrue(new StringMatcher(null, null, null, null).tryMatch().matched());
+        assertTrue(new StringMatcher(null, "id-\\d+", "id-x",
+                new HashSet<>(Collections.singletonList(MatchCondition.DO_NOT_MATCH))).tryMatch().matched());
+    }
+
+    private static String randomText(Random random, int maxLength) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            sb.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        return sb.toString();
+    }
+}
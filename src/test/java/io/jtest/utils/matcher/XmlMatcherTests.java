@@ -4,6 +4,10 @@ import io.jtest.utils.exceptions.InvalidTypeException;
 import io.jtest.utils.matcher.condition.MatchCondition;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -384,4 +388,68 @@ public class XmlMatcherTests {
             assertTrue(e.getMessage().contains("doesn't match any actual element"));
         }
     }
+
+    @Test
+    public void tryMatchReportsOutcomeWithoutThrowing() throws InvalidTypeException {
+        String expected = "<a><b id=\"~[id]\">~[text]</b><b>2</b></a>";
+        MatchOutcome outcome = new XmlMatcher(null, expected, "<a><b>2</b><b id=\"x\">1</b></a>", null).tryMatch();
+        assertTrue(outcome.matched());
+        assertEquals("x", outcome.properties().get("id"));
+        assertEquals("1", outcome.properties().get("text"));
+
+        assertFalse(new XmlMatcher(null, expected, "<a><b id=\"x\">1</b><b>3</b></a>", null).tryMatch().matched());
+        assertTrue(new XmlMatcher(null, expected, "<a><b id=\"x\">1</b><b>3</b></a>",
+                new HashSet<>(Collections.singletonList(MatchCondition.DO_NOT_MATCH))).tryMatch().matched());
+    }
+
+    @Test
+    public void matchXmlGivenAsBytes() throws InvalidTypeException {
+        String xml = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><a><b>Zoë</b></a>";
+        byte[] latin1 = xml.getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals("Zoë", new XmlMatcher(null, "<a><b>~[name]</b></a>", latin1, null).match().get("name"));
+        assertEquals("Zoë", new XmlMatcher(null, "<a><b>~[name]</b></a>", ByteBuffer.wrap(latin1), null).match().get("name"));
+        assertEquals("Zoë", new XmlMatcher(null, "<a><b>~[name]</b></a>", new ByteArrayInputStream(latin1), null)
+                .match().get("name"));
+        assertEquals("Zoë", new XmlMatcher(null, "<a><b>~[name]</b></a>", xml, null).match().get("name"));
+        assertEquals("Zoë", new XmlMatcher(null, "<a><b>~[name]</b></a>",
+                new StringReader(xml), null).match().get("name"));
+        assertThrows(InvalidTypeException.class, () -> new XmlMatcher(null, "<a/>", "<a>".getBytes(StandardCharsets.UTF_8), null));
+    }
+
+    @Test
+    public void compareEachPairOfSameNamedSiblingsOnce() throws InvalidTypeException {
+        StringBuilder expected = new StringBuilder("<list>");
+        StringBuilder actual = new StringBuilder("<list>");
+        for (int i = 0; i < 10; i++) {
+            expected.append("<item><id>").append(i).append("</id><tag>t</tag><tag>~[tag").append(i).append("]</tag></item>");
+            actual.append("<item><id>").append(9 - i).append("</id><tag>t</tag><tag>v").append(9 - i).append("</tag></item>");
+        }
+        MatchOutcome outcome = new XmlMatcher(null, expected.append("</list>").toString(),
+                actual.append("</list>").toString(), null).tryMatch();
+        assertTrue(outcome.matched());
+        assertEquals("v7", outcome.properties().get("tag7"));
+        assertTrue(outcome.cacheHits() > 0);
+
+        assertFalse(new XmlMatcher(null, expected.toString(), actual.toString().replace("<id>7</id>", "<id>77</id>"), null)
+                .tryMatch().matched());
+    }
+
+    @Test
+    public void reportDifferenceOnlyOnFinalFailure() throws InvalidTypeException {
+        String expected = "<a><b>1</b><c>~[c]</c></a>";
+        assertFalse(new XmlMatcher(null, expected, "<a><b>3</b><c>2</c></a>", null).tryMatch().matched());
+        assertEquals(Map.of("c", "2"), new XmlMatcher(null, expected, "<a><c>2</c><b>1</b></a>", null).match());
+        AssertionError error = assertThrows(AssertionError.class,
+                () -> new XmlMatcher("msg", expected, "<a><b>3</b><c>2</c></a>", null).match());
+        assertTrue(error.getMessage().contains("at /a[1]/b[1]/text()[1]"));
+    }
+
+    @Test
+    public void doNotMatchXmlsWhoseSameNamedSiblingsDoNotMatch() throws InvalidTypeException {
+        String expected = "<a><b>1</b><b>2</b></a>";
+        String actual = "<a><b>1</b><b>3</b></a>";
+        assertTrue(new XmlMatcher(null, expected, actual, new HashSet<>(Collections.singletonList(MatchCondition.DO_NOT_MATCH)))
+                .match().isEmpty());
+        assertTrue(ObjectMatcher.matchXml(null, expected, actual, MatchCondition.DO_NOT_MATCH).isEmpty());
+    }
 }
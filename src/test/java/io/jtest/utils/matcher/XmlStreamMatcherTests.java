@@ -0,0 +1,96 @@
+package io.jtest.utils.matcher;
+
+import io.jtest.utils.common.XmlUtils;
+import io.jtest.utils.exceptions.InvalidTypeException;
+import io.jtest.utils.matcher.condition.MatchCondition;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XmlStreamMatcherTests {
+
+    @Test
+    public void matchStreamedXml() {
+        String expected = "<order id=\"~[id]\"><item sku=\"A-\\d+\">~[first]</item><item sku=\"B-1\"/><total>~[total]</total></order>";
+        String actual = """
+                <order id="42" channel="web">
+                  <note>unrelated</note>
+                  <item sku="B-1">bolt</item>
+                  <item sku="A-7">  nut  </item>
+                  <total>3.50</total>
+                </order>""";
+        Map<String, Object> captured = ObjectMatcher.matchXmlStream(null, expected,
+                new ByteArrayInputStream(actual.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(Map.of("id", "42", "first", "nut", "total", "3.50"), captured);
+    }
+
+    @Test
+    public void matchStreamedXmlLikeDom() throws InvalidTypeException {
+        String[][] xmls = {
+                {"<a><b>1</b><c>2</c></a>", "<a><c>2</c><b>1</b></a>"},
+                {"<a><b>1</b><c>2</c></a>", "<a><b>1</b><c>2</c><d/></a>"},
+                {"<a><b><c>1</c><c>2</c></b><b><c>3</c></b></a>", "<a><b><c>3</c></b><b><c>2</c><c>1</c><c>0</c></b></a>"},
+                {"<a><b><c>1</c><c>2</c></b><b><c>3</c></b></a>", "<a><b><c>3</c></b><b><c>2</c><c>4</c></b></a>"},
+                {"<a id=\"~[id]\"/>", "<a/>"},
+                {"<a id=\"~[id]\"/>", "<a id=\"1\" k=\"v\"/>"},
+                {"<a><!-- c --><b/></a>", "<a><b/><!-- d --></a>"},
+                {"<p:a xmlns:p=\"urn:x\"><p:b>1</p:b></p:a>", "<q:a xmlns:q=\"urn:x\"><q:b>1</q:b></q:a>"},
+                {"<a><b>~[v]</b></a>", "<a><b><c/></b></a>"},
+                {"<a>x<b>1</b><!-- c --><b>2</b></a>", "<a>x<b>1</b><!-- c --><b>2</b></a>"},
+                {"<a>x<b>1</b><!-- c --><b>2</b></a>", "<a>x<b>2</b><!-- c --><b>1</b></a>"}};
+        for (String[] xml : xmls) {
+            for (MatchCondition condition : Arrays.asList(MatchCondition.XML_CHILD_NODELIST_LENGTH,
+                    MatchCondition.XML_CHILD_NODELIST_SEQUENCE, MatchCondition.XML_ELEMENT_NUM_ATTRIBUTES, MatchCondition.DO_NOT_MATCH, null)) {
+                Set<MatchCondition> conditions = condition != null ? Collections.singleton(condition) : Collections.emptySet();
+                MatchOutcome dom = new XmlMatcher(null, xml[0], xml[1], new HashSet<>(conditions)).tryMatch();
+                MatchOutcome streamed = new XmlStreamMatcher(null, xml[0], xml[1], new HashSet<>(conditions)).tryMatch();
+                assertEquals(dom.matched(), streamed.matched(), Arrays.toString(xml) + " " + conditions);
+                assertEquals(dom.properties(), streamed.properties(), Arrays.toString(xml) + " " + conditions);
+            }
+        }
+    }
+
+    @Test
+    public void assignSameNamedElementsWhereverPossible() throws InvalidTypeException {
+        // the DOM comparison takes the first actual element the placeholder matches and fails
+        MatchOutcome outcome = new XmlStreamMatcher(null, "<a><b>~[x]</b><b>2</b></a>", "<a><b>2</b><b>3</b></a>", null).tryMatch();
+        assertTrue(outcome.matched());
+        assertEquals("3", outcome.properties().get("x"));
+    }
+
+    @Test
+    public void matchLargeStreamedXml() {
+        SequenceInputStream feed = new SequenceInputStream(Collections.enumeration(IntStream.rangeClosed(-1, 50_000)
+                .mapToObj(i -> i < 0 ? "<feed>" : i < 50_000 ? "<item id=\"" + i + "\"><name>item " + i + "</name></item>" : "</feed>")
+                .map(s -> new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8))).toList()));
+        assertEquals(Map.of("id", "31337"), ObjectMatcher.matchXmlStream(null,
+                "<feed><item id=\"~[id]\"><name>item 31337</name></item></feed>", feed));
+    }
+
+    @Test
+    public void doNotMatchStreamedXml() {
+        AssertionError error = assertThrows(AssertionError.class, () -> ObjectMatcher.matchXmlStream("custom message",
+                "<a><b>1</b></a>", "<a><b>2</b></a>"));
+        assertTrue(error.getMessage().startsWith("custom message" + System.lineSeparator() + "XMLs do not match"));
+        assertTrue(ObjectMatcher.matchXmlStream(null, "<a><b>1</b></a>", "<a><b>2</b></a>",
+                MatchCondition.DO_NOT_MATCH).isEmpty());
+        assertThrows(AssertionError.class, () -> ObjectMatcher.matchXmlStream(null, "<a><b>1</b></a>", "<a><b>1</b></a>",
+                MatchCondition.DO_NOT_MATCH));
+    }
+
+    @Test
+    public void streamOnlyXmlText() throws Exception {
+        assertThrows(InvalidTypeException.class, () -> new XmlStreamMatcher(null, "<a/>", XmlUtils.toNode("<a/>"), null));
+        assertThrows(RuntimeException.class, () -> ObjectMatcher.matchXmlStream(null, "<a/>", "<a>"));
+    }
+}
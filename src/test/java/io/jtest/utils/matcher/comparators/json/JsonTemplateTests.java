@@ -0,0 +1,274 @@
+package io.jtest.utils.matcher.comparators.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jtest.utils.matcher.MatchOutcome;
+import io.jtest.utils.matcher.condition.MatchCondition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTemplateTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static Map<String, Object> match(String expected, String actual, MatchCondition... conditions) throws Exception {
+        Set<MatchCondition> matchConditions = new HashSet<>(Arrays.asList(conditions));
+        return JsonTemplate.compile(MAPPER.readTree(expected), matchConditions).match(MAPPER.readTree(actual));
+    }
+
+    @Test
+    public void matchObjectsWithExtraFields() throws Exception {
+        assertEquals(Collections.emptyMap(), match("{\"a\":\"val2\",\"!b\":\"val1\"}", "{\"a\":\"val2\",\"c\":\"val1\"}"));
+        assertNull(match("{\"a\":\"val2\",\"!b\":\"val1\"}", "{\"a\":\"val2\",\"b\":\"val1\"}"));
+        assertNull(match("{\"a\":\"val2\",\"!.*\":\".*\"}", "{\"a\":\"val2\",\"c\":\"val1\"}"));
+        assertNull(match("{\"a\":\"val2\"}", "{\"a\":\"val2\",\"c\":\"val1\"}", MatchCondition.JSON_NON_EXTENSIBLE_OBJECT));
+        assertNull(match("{\"a\":\"val2\"}", "[\"val2\"]"));
+    }
+
+    @Test
+    public void captureValuesAndFieldNames() throws Exception {
+        Map<String, Object> props = match("{\"a\":{\"abc-~[sym1]\":{\"o\":\"2\"},\"abc-~[sym2]\":{\"o\":\"0\"}},\"b\":\"~[b]\"}",
+                "{\"a\":{\"abc-X\":{\"o\":\"2\"},\"abc-Y\":{\"o\":\"0\"}},\"b\":\"line1\\nline2\"}");
+        assertEquals("X", props.get("sym1"));
+        assertEquals("Y", props.get("sym2"));
+        assertEquals("line1\\nline2", props.get("b"));
+    }
+
+    @Test
+    public void matchArraysInAnyOrder() throws Exception {
+        Map<String, Object> props = match("[2,\"~[sym1]\",4,\"~[sym2]\"]", "[5,4,3,2,1]");
+        assertEquals("5", props.get("sym1"));
+        assertEquals("3", props.get("sym2"));
+        assertNotNull(match("[1,2,3,4,\"!.*\"]", "[4,3,2,1]"));
+        assertNull(match("[1,2,3,4,\"!.*\"]", "[5,4,3,2,1]"));
+        assertNull(match("[1,\"!5\"]", "[5,4,3,2,1]"));
+        assertNull(match("[1,2]", "[1,2,3]", MatchCondition.JSON_NON_EXTENSIBLE_ARRAY));
+    }
+
+    @Test
+    public void matchArraysInStrictOrder() throws Exception {
+        assertNotNull(match("[1,true]", "[1,true,false]", MatchCondition.JSON_STRICT_ORDER_ARRAY));
+        assertNull(match("[1,false]", "[1,true,false]", MatchCondition.JSON_STRICT_ORDER_ARRAY));
+    }
+
+    @Test
+    public void matchScalarsByType() throws Exception {
+        assertNotNull(match("{\"a\":null,\"b\":1.5,\"c\":true,\"d\":\"1\\\\d\"}", "{\"a\":null,\"b\":1.5,\"c\":true,\"d\":12}"));
+        assertNull(match("{\"b\":1.5}", "{\"b\":\"1.5\"}"));
+        assertNull(match("{\"a\":null}", "{\"a\":\"null\"}"));
+        assertNull(match("{\"a\":\"~[a]\"}", "{\"a\":{}}"));
+        assertTrue(match("{\"b\":\"!v~[sym1]1\"}", "{\"b\":\"t1\"}").isEmpty());
+        assertNull(match("{\"b\":\"!v~[sym1]1\"}", "{\"b\":\"val1\"}"));
+    }
+
+    @Test
+    public void disableRegex() throws Exception {
+        assertEquals("me", match("{\"b\":\"(?=test) ~[sym1]\"}", "{\"b\":\"(?=test) me\"}", MatchCondition.REGEX_DISABLED).get("sym1"));
+        assertNull(match("{\"b\":\"v.l\"}", "{\"b\":\"val\"}", MatchCondition.REGEX_DISABLED));
+    }
+
+    @Test
+    public void backtrackOverFieldNameBindings() throws Exception {
+        JsonTemplate template = JsonTemplate.compile(MAPPER.readTree("{\"a-~[x]\":1,\"b-~[x]\":2}"), Collections.emptySet());
+        MatchOutcome outcome = template.tryMatch(MAPPER.readTree("{\"a-1\":1,\"a-2\":1,\"b-2\":2}"));
+        assertTrue(outcome.matched());
+        assertEquals("2", outcome.properties().get("x"));
+        assertEquals(1, outcome.retries());
+        assertFalse(template.tryMatch(MAPPER.readTree("{\"a-1\":1,\"a-2\":1,\"b-3\":2}")).matched());
+
+        Map<String, Object> props = match("[{\"~[k]\":{\"v\":\"~[v]\"}},{\"~[k]\":true}]",
+                "[{\"p\":{\"v\":1}},{\"q\":{\"v\":2}},{\"q\":true}]");
+        assertEquals("q", props.get("k"));
+        assertEquals("2", props.get("v"));
+
+        props = match("{\"~[sym1]\":\"~[val1]\",\"~[sym2]\":\"~[val2]\"}", "{\"a\":\"3\",\"b\":\"100\"}");
+        assertEquals("a", props.get("sym1"));
+        assertEquals("b", props.get("sym2"));
+        assertNull(match("{\"a.*\":1,\"~[x]\":1}", "{\"ab\":1}"));
+    }
+
+    @Test
+    public void matchLargeArraysInAnyOrder() throws Exception {
+        StringBuilder expected = new StringBuilder("[");
+        StringBuilder actual = new StringBuilder("[");
+        for (int i = 0; i < 5_000; i++) {
+            expected.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"v\":\"").append(i % 7).append("\"}");
+            actual.append(i > 0 ? "," : "").append("{\"v\":").append((4_999 - i) % 7).append(",\"id\":").append(4_999 - i).append("}");
+        }
+        assertNotNull(match(expected + "]", actual + "]"));
+        assertNull(match(expected + ",{\"id\":1}]", actual + "]"));
+
+        String scalars = "[\"a\",1,null,true,\"12\",2,3,4,5,6,7,8,9,10,11,{\"id\":\"x\"},[1],\"b\"]";
+        Map<String, Object> props = match("[11,\"b\",null,\"tru.\",{\"id\":\"~[id]\"},[1],\"~[any]\"]", scalars);
+        assertEquals("x", props.get("id"));
+        assertEquals("a", props.get("any"));
+        assertNull(match("[\"c\"]", scalars));
+        assertNotNull(match("[\"10\",\"11\"]", scalars));
+        assertNull(match("[1,\"!12\"]", scalars));
+        assertNotNull(match("[1,\"!13\"]", scalars));
+    }
+
+    @Test
+    public void assignArrayElementsFirstFitMisses() throws Exception {
+        assertEquals("b", match("[\"~[x]\",\"a\"]", "[\"a\",\"b\"]").get("x"));
+        assertNotNull(match("[\".*\",\"a\",\"!.*\"]", "[\"a\",\"b\"]"));
+        assertNull(match("[\"a.*\",\"a.*\"]", "[\"a1\",\"b\"]"));
+        assertNull(match("[\"a.*\",\"a1\",\"a.*\"]", "[\"a1\",\"b\",\"a2\"]"));
+
+        String expected = "[" + "\".*\",".repeat(499) + "\"x\"]";
+        assertNotNull(match(expected, "[\"x\"," + "\"y\",".repeat(498) + "\"y\"]"));
+        assertNull(match(expected, "[\"z\"," + "\"y\",".repeat(498) + "\"y\"]"));
+    }
+
+    @Test
+    public void matchInParallelLikeSequentially() throws Exception {
+        StringBuilder expected = new StringBuilder("[");
+        StringBuilder actual = new StringBuilder("[");
+        for (int i = 0; i < 1_000; i++) {
+            expected.append(i > 0 ? "," : "").append(i % 100 == 0 ? "{\"id\":\"~[id" + i + "]\"}" : "{\"id\":" + i + "}");
+            actual.append(i > 0 ? "," : "").append("{\"id\":").append(999 - i).append("}");
+        }
+        String array = expected + ",\"~[last]\"]";
+        String object = "{\"a\":" + array + ",\"b\":" + expected + "],\"c\":\"~[c]\"}";
+        String actualObject = "{\"a\":" + actual + ",\"x\"],\"b\":" + actual + "],\"c\":true}";
+        Map<String, Object> sequential = match(object, actualObject);
+        assertEquals("x", sequential.get("last"));
+        assertEquals("true", sequential.get("c"));
+        assertEquals(sequential, match(object, actualObject, MatchCondition.JSON_PARALLEL));
+        assertNull(match(object, actualObject.replace("\"x\"]", "{\"id\":-1}]"), MatchCondition.JSON_PARALLEL));
+
+        String inOrder = expected.toString().replaceAll("\"~\\[id(\\d+)]\"", "$1") + "]";
+        Map<String, Object> strict = match(expected + "]", inOrder, MatchCondition.JSON_STRICT_ORDER_ARRAY);
+        assertEquals("900", strict.get("id900"));
+        assertEquals(strict, match(expected + "]", inOrder, MatchCondition.JSON_STRICT_ORDER_ARRAY, MatchCondition.JSON_PARALLEL));
+        assertNull(match(expected + "]", actual + "]", MatchCondition.JSON_STRICT_ORDER_ARRAY, MatchCondition.JSON_PARALLEL));
+    }
+
+    @Test
+    public void compareLiteralSubtreesStructurally() throws Exception {
+        JsonTemplate.Options options = JsonTemplate.Options.of(Collections.emptySet());
+        assertTrue(JsonTemplate.compileNode(MAPPER.readTree("{\"a\":[1,\"x\",{\"b\":null}],\"!.*\":true}"), options).isLiteral());
+        assertFalse(JsonTemplate.compileNode(MAPPER.readTree("{\"a\":[1,\"x.\"]}"), options).isLiteral());
+        assertFalse(JsonTemplate.compileNode(MAPPER.readTree("[1,\"!2\"]"), options).isLiteral());
+        assertTrue(JsonTemplate.compileNode(MAPPER.readTree("[\"x.\"]"),
+                JsonTemplate.Options.of(Set.of(MatchCondition.REGEX_DISABLED))).isLiteral());
+
+        assertNotNull(match("{\"a\":\"12\",\"b\":\"true\",\"c\":[1,\"x\"]}", "{\"a\":12,\"b\":true,\"c\":[\"x\",1,2],\"d\":0}"));
+        assertNull(match("{\"a\":12}", "{\"a\":\"12\"}"));
+        assertNull(match("{\"a\":\"null\"}", "{\"a\":null}"));
+        assertNull(match("{\"a\":[1,\"x\"]}", "{\"a\":[\"x\",1,2]}", MatchCondition.JSON_STRICT_ORDER_ARRAY));
+        assertNull(match("{\"a\":[1,\"x\"]}", "{\"a\":[\"x\",1,2]}", MatchCondition.JSON_NON_EXTENSIBLE_ARRAY));
+        assertNull(match("{\"a\":{\"b\":1},\"!.*\":\".*\"}", "{\"a\":{\"b\":1},\"c\":1}"));
+        assertNull(match("{\"a\":{\"b\":1}}", "{\"a\":{\"b\":1,\"c\":1}}", MatchCondition.JSON_NON_EXTENSIBLE_OBJECT));
+        assertNull(match("[[1,1]]", "[[1,2]]"));
+
+        Map<String, Object> props = match("{\"a\":{\"b\":[1,2,{\"c\":\"x\"}]},\"d\":\"~[d]\"}",
+                "{\"d\":\"y\",\"a\":{\"b\":[{\"c\":\"x\"},2,1]}}");
+        assertEquals(Map.of("d", "y"), props);
+    }
+
+    @Test
+    public void readOnlyWhatTheTemplateLooksAt() throws Exception {
+        JsonTemplate template = JsonTemplate.compile(MAPPER.readTree(
+                "{\"a\":{\"b\":1},\"c\":[{\"d\":\"~[d]\"},2],\"e-~[e]\":true,\"f\":{\"!.*\":\".*\"},\"g\":0}"), Collections.emptySet());
+        String actual = "{\"a\":{\"b\":1,\"x\":[1,2]},\"c\":[{\"d\":1,\"y\":{}},3,[4]],\"e-1\":true,\"e2\":false,"
+                + "\"f\":{\"z\":{\"w\":1}},\"g\":{\"h\":[1]},\"skipped\":{\"i\":[{}]}}";
+        try (JsonParser parser = MAPPER.getFactory().createParser(actual)) {
+            assertEquals(MAPPER.readTree("{\"a\":{\"b\":1},\"c\":[{\"d\":1},3,[]],\"e-1\":true,\"f\":{\"z\":null},\"g\":{}}"),
+                    template.read(parser));
+        }
+    }
+
+    @Test
+    public void keepOnlyTheArrayElementsTheVerdictDependsOn() throws Exception {
+        assertRead("{\"a\":[1,2],\"b\":[\"!x\"],\"c\":[\"~[v]\"]}",
+                "{\"a\":[1,3,1,1,2,2,2],\"b\":[\"y\",\"x\",\"z\",\"x\"],\"c\":[1,2]}",
+                "{\"a\":[1,1,2,2],\"b\":[\"x\"],\"c\":[1,2]}");
+        assertRead("{\"a\":[\"[a-z]+\",\"!.*\"]}", "{\"a\":[1,2,3]}", "{\"a\":[1,2]}");
+        assertRead("{\"a\":[{\"b\":1},{\"b\":2}],\"c\":[[1]]}",
+                "{\"a\":[{\"b\":2,\"x\":0},{\"b\":3},{\"b\":1}],\"c\":[[2],[1,2,1]]}",
+                "{\"a\":[{\"b\":2},{\"b\":1}],\"c\":[[1]]}");
+        assertRead("[1,2]", "[2,1,3]", "[2,1]", MatchCondition.JSON_STRICT_ORDER_ARRAY);
+        assertRead("[1,2]", "[2,1,3,4]", "[2,1,3]", MatchCondition.JSON_NON_EXTENSIBLE_ARRAY);
+
+        // the verdict is that on the whole actual JSON
+        String expected = "[\"[0-9]\",\"[0-9]\",5]";
+        String actual = "[5,5,5,1,2]";
+        JsonTemplate template = JsonTemplate.compile(MAPPER.readTree(expected), Collections.emptySet());
+        try (JsonParser parser = MAPPER.getFactory().createParser(actual)) {
+            assertNotNull(template.match(template.read(parser)));
+        }
+        assertNotNull(match(expected, actual));
+    }
+
+    private static void assertRead(String expected, String actual, String read, MatchCondition... conditions) throws Exception {
+        JsonTemplate template = JsonTemplate.compile(MAPPER.readTree(expected), new HashSet<>(Arrays.asList(conditions)));
+        try (JsonParser parser = MAPPER.getFactory().createParser(actual)) {
+            JsonNode reduced = template.read(parser);
+            assertEquals(MAPPER.readTree(read), reduced);
+            assertEquals(template.match(MAPPER.readTree(actual)) != null, template.match(reduced) != null);
+        }
+    }
+
+    @Test
+    public void locateMismatchesInTheExpectedJson() throws Exception {
+        JsonTemplate template = JsonTemplate.compile(MAPPER.readTree("{\"a\":{\"b/c\":[1,{\"d\":true}]},\"e\":1}"),
+                Collections.singleton(MatchCondition.JSON_STRICT_ORDER_ARRAY));
+        assertEquals("/a/b~1c/1/d", template.mismatchPointer(MAPPER.readTree("{\"a\":{\"b/c\":[1,{\"d\":false}]},\"e\":1}")));
+        assertEquals("/a/b~1c", template.mismatchPointer(MAPPER.readTree("{\"a\":{},\"e\":1}")));
+        assertEquals("/e", template.mismatchPointer(MAPPER.readTree("{\"a\":{\"b/c\":[1,{\"d\":true}]}}")));
+        assertEquals("", template.mismatchPointer(MAPPER.readTree("[]")));
+        assertEquals("/a", JsonTemplate.compile(MAPPER.readTree("{\"a\":[1,2]}"), Collections.emptySet())
+                .mismatchPointer(MAPPER.readTree("{\"a\":[2,3]}")));
+    }
+
+    @Test
+    public void compileOnlyUnsupportedNodesForJsonCompare() throws Exception {
+        JsonNode expected = MAPPER.readTree("{\"a\":[\"\\\\.*\",1],\"b\":{\"#($.c)\":1},\"d\":[\"~[x]\",2,3,5]}");
+        TemplateNode root = JsonTemplate.compileNode(expected, JsonTemplate.Options.of(Collections.emptySet()));
+        assertInstanceOf(ObjectTemplateNode.class, root);
+        assertInstanceOf(JsonCompareNode.class, JsonTemplate.compileNode(expected.get("b"),
+                JsonTemplate.Options.of(Collections.emptySet())));
+        assertInstanceOf(JsonCompareNode.class, JsonTemplate.compileNode(expected.get("a").get(0),
+                JsonTemplate.Options.of(Collections.emptySet())));
+        assertInstanceOf(JsonCompareNode.class, JsonTemplate.compileNode(MAPPER.readTree("[\"!a\",1]"),
+                JsonTemplate.Options.of(Collections.singleton(MatchCondition.JSON_STRICT_ORDER_ARRAY))));
+        assertInstanceOf(ValueTemplateNode.class, JsonTemplate.compileNode(MAPPER.readTree("\"#a\""),
+                JsonTemplate.Options.of(Collections.emptySet())));
+        assertInstanceOf(ObjectTemplateNode.class, JsonTemplate.compileNode(MAPPER.readTree("{\"#a\":1}"),
+                JsonTemplate.Options.of(Collections.emptySet())));
+    }
+
+    @Test
+    public void matchAroundNodesComparedWithJsonCompare() throws Exception {
+        // the template alone decides: "d" has no match, whatever JSONCompare says of "b"
+        assertNull(match("{\"b\":{\"#($.c)\":1},\"d\":[\"~[x]\",2,3,6]}", "{\"b\":{\"c\":1},\"d\":[5,4,3,2,1]}"));
+        assertNull(match("{\"b\":{\"#($.c)\":1}}", "{\"d\":1}"));
+        assertNull(match("[{\"#($.c)\":1}]", "[1,\"c\"]"));
+    }
+
+    @Test
+    public void readWholeSubtreeForJsonPathFieldNames() throws Exception {
+        JsonTemplate template = JsonTemplate.compile(MAPPER.readTree("{\"store\":{\"#($.book[0])\":{\"a\":1}}}"),
+                Collections.emptySet());
+        String actual = "{\"store\":{\"book\":[{\"a\":1,\"b\":2}],\"bicycle\":{}},\"other\":[1]}";
+        try (JsonParser parser = MAPPER.getFactory().createParser(actual)) {
+            assertEquals(MAPPER.readTree("{\"store\":{\"book\":[{\"a\":1,\"b\":2}],\"bicycle\":{}}}"),
+                    template.read(parser));
+        }
+        JsonTemplate regionTemplate = JsonTemplate.compile(MAPPER.readTree("{\"#($.book[0])\":{\"a\":1}}"),
+                Collections.emptySet());
+        try (JsonParser parser = MAPPER.getFactory().createParser(actual)) {
+            assertEquals(MAPPER.readTree(actual).get("store"),
+                    JsonRegions.read(parser, Collections.singletonMap("/store", regionTemplate)).get("/store"));
+        }
+    }
+}